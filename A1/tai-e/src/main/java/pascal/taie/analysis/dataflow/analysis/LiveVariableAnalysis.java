@@ -23,6 +23,7 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import com.google.common.collect.Sets;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -38,8 +39,14 @@ public class LiveVariableAnalysis extends
 
     public static final String ID = "livevar";
 
+    /**
+     * Whether the facts are {@link BitSetFact}s, given by option "dense-fact".
+     */
+    private final boolean denseFact;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        denseFact = getOptions().getBooleanOrDefault("dense-fact", false);
     }
 
     @Override
@@ -50,13 +57,17 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return newFact();
     }
 
     @Override
     public SetFact<Var> newInitialFact() {
         // TODO - finish me
-        return new SetFact<>();
+        return newFact();
+    }
+
+    private SetFact<Var> newFact() {
+        return denseFact ? new BitSetFact() : new SetFact<>();
     }
 
     @Override
@@ -68,17 +79,19 @@ public class LiveVariableAnalysis extends
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
-        SetFact<Var> temp = in.copy();
-        in.clear();
-        in.union(out);
+        SetFact<Var> newIn = out.copy();
         if(stmt.getDef().isPresent()) {
             if(stmt.getDef().get() instanceof Var) {
-                in.remove((Var) stmt.getDef().get());
+                newIn.remove((Var) stmt.getDef().get());
             }
         }
         for(RValue x : stmt.getUses()) {
-            if (x instanceof Var) in.add((Var) x);
+            if (x instanceof Var) newIn.add((Var) x);
+        }
+        if (newIn.equals(in)) {
+            return false;
         }
-        return !in.toString().equals(temp.toString());
+        in.set(newIn);
+        return true;
     }
 }
@@ -0,0 +1,247 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.CollectionUtils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Set-like data-flow facts of variables, which are represented by
+ * bit vectors indexed by {@link Var#getIndex()}, so that union,
+ * intersection, copy and comparison of two such facts take time
+ * proportional to the number of words.
+ * <p>
+ * All variables in a fact must belong to the same {@link IR}.
+ * The facts of an analysis should be either all {@link BitSetFact}s or
+ * none of them, as operations between the two kinds fall back to
+ * element-wise iteration.
+ */
+public class BitSetFact extends SetFact<Var> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * The IR which the variables in this fact belong to,
+     * or null if no variables have been added yet.
+     */
+    private IR ir;
+
+    private long[] words;
+
+    public BitSetFact() {
+        super(Set::of);
+        words = EMPTY;
+    }
+
+    private BitSetFact(BitSetFact other) {
+        super(Set::of);
+        ir = other.ir;
+        words = other.words.clone();
+    }
+
+    @Override
+    public boolean contains(Var var) {
+        int i = var.getIndex();
+        int w = i >>> ADDRESS_BITS_PER_WORD;
+        return w < words.length && (words[w] & (1L << i)) != 0;
+    }
+
+    @Override
+    public boolean add(Var var) {
+        if (ir == null) {
+            ir = var.getMethod().getIR();
+        }
+        int i = var.getIndex();
+        int w = i >>> ADDRESS_BITS_PER_WORD;
+        ensureCapacity(w + 1);
+        long old = words[w];
+        words[w] |= 1L << i;
+        return words[w] != old;
+    }
+
+    @Override
+    public boolean remove(Var var) {
+        int i = var.getIndex();
+        int w = i >>> ADDRESS_BITS_PER_WORD;
+        if (w >= words.length) {
+            return false;
+        }
+        long old = words[w];
+        words[w] &= ~(1L << i);
+        return words[w] != old;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<Var> filter) {
+        boolean changed = false;
+        for (int i : indexes().toArray()) {
+            if (filter.test(ir.getVar(i))) {
+                words[i >>> ADDRESS_BITS_PER_WORD] &= ~(1L << i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<Var> other) {
+        if (other instanceof BitSetFact that) {
+            if (ir == null) {
+                ir = that.ir;
+            }
+            ensureCapacity(that.words.length);
+            boolean changed = false;
+            for (int w = 0; w < that.words.length; ++w) {
+                long old = words[w];
+                words[w] |= that.words[w];
+                changed |= words[w] != old;
+            }
+            return changed;
+        } else {
+            boolean changed = false;
+            Iterator<Var> it = other.stream().iterator();
+            while (it.hasNext()) {
+                changed |= add(it.next());
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean intersect(SetFact<Var> other) {
+        if (other instanceof BitSetFact that) {
+            boolean changed = false;
+            for (int w = 0; w < words.length; ++w) {
+                long old = words[w];
+                words[w] &= w < that.words.length ? that.words[w] : 0;
+                changed |= words[w] != old;
+            }
+            return changed;
+        } else {
+            return removeIf(var -> !other.contains(var));
+        }
+    }
+
+    @Override
+    public BitSetFact copy() {
+        return new BitSetFact(this);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<Var> stream() {
+        // not ir::getVar, as ir is null until a variable is added
+        return indexes().mapToObj(i -> ir.getVar(i));
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return indexes of the variables in this fact, in ascending order.
+     */
+    private IntStream indexes() {
+        IntStream.Builder builder = IntStream.builder();
+        for (int w = 0; w < words.length; ++w) {
+            long word = words[w];
+            while (word != 0) {
+                builder.add((w << ADDRESS_BITS_PER_WORD) +
+                        Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return builder.build();
+    }
+
+    private void ensureCapacity(int wordsRequired) {
+        if (words.length < wordsRequired) {
+            words = Arrays.copyOf(words,
+                    Math.max(2 * words.length, wordsRequired));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitSetFact that)) {
+            return super.equals(o);
+        }
+        int common = Math.min(words.length, that.words.length);
+        for (int w = 0; w < common; ++w) {
+            if (words[w] != that.words[w]) {
+                return false;
+            }
+        }
+        long[] longer = words.length > common ? words : that.words;
+        for (int w = common; w < longer.length; ++w) {
+            if (longer[w] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(), as BitSetFact
+        // may equal other kinds of SetFact
+        return stream().mapToInt(Var::hashCode).sum();
+    }
+
+    @Override
+    public String toString() {
+        return CollectionUtils.toString(stream().toList());
+    }
+}
@@ -27,8 +27,11 @@ import pascal.taie.util.collection.Sets;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -48,6 +51,25 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * Constructs a fact backed by the set created by given factory.
+     * Subclasses which represent the elements by themselves pass
+     * {@code Set::of}, and must override all methods that access
+     * {@link #set}.
+     */
+    protected SetFact(Supplier<? extends Set<E>> setFactory) {
+        set = setFactory.get();
+    }
+
+    /**
+     * @return true if this fact is exactly a {@code SetFact}, so that its
+     * elements are kept in {@link #set}. Facts of subclasses are only
+     * accessed through their methods.
+     */
+    private boolean isPlain() {
+        return getClass() == SetFact.class;
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -89,7 +111,15 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        if (other.isPlain()) {
+            return set.addAll(other.set);
+        }
+        boolean changed = false;
+        Iterator<E> it = other.stream().iterator();
+        while (it.hasNext()) {
+            changed |= add(it.next());
+        }
+        return changed;
     }
 
     /**
@@ -107,7 +137,8 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return other.isPlain() ?
+                set.retainAll(other.set) : removeIf(e -> !other.contains(e));
     }
 
     /**
@@ -161,7 +192,14 @@ public class SetFact<E> {
         if (!(o instanceof SetFact<?> that)) {
             return false;
         }
-        return set.equals(that.set);
+        if (isPlain() && that.isPlain()) {
+            return set.equals(that.set);
+        }
+        // at least one of the two facts may represent the elements
+        // by itself, thus compare them element-wise
+        Set<?> elements = isPlain() ?
+                set : stream().collect(Collectors.toSet());
+        return size() == that.size() && that.stream().allMatch(elements::contains);
     }
 
     @Override
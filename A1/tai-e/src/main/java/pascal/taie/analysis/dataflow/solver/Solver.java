@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
 
 import java.util.Objects;
 
@@ -51,6 +52,27 @@ public abstract class Solver<Node, Fact> {
         return new IterativeSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind kind of the solver, "default" (or null) for the solver
+     *             given by {@link #makeSolver(DataflowAnalysis)}, or
+     *             "priority" for the solver that processes nodes in reverse
+     *             postorder and converges loops one by one.
+     * @throws ConfigException if kind is unknown.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind) {
+        if (kind == null || kind.equals("default")) {
+            return makeSolver(analysis);
+        } else if (kind.equals("priority")) {
+            return new PriorityWorkListSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown data-flow solver: " + kind);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
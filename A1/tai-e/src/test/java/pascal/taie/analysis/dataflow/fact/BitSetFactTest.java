@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.TestIRs;
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetFactTest {
+
+    private final List<Var> vars = TestIRs.makeVars(200);
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    public void testEqualsAcrossWordLengths() {
+        BitSetFact shorter = new BitSetFact();
+        shorter.add(vars.get(1));
+        BitSetFact longer = new BitSetFact();
+        longer.add(vars.get(1));
+        // grows the words, then clears the high bit
+        longer.add(vars.get(150));
+        longer.remove(vars.get(150));
+        assertEquals(shorter, longer);
+        assertEquals(longer, shorter);
+        assertEquals(shorter.hashCode(), longer.hashCode());
+
+        longer.add(vars.get(150));
+        assertNotEquals(shorter, longer);
+        assertNotEquals(longer, shorter);
+    }
+
+    @Test
+    public void testEqualsEmpty() {
+        BitSetFact empty = new BitSetFact();
+        BitSetFact cleared = new BitSetFact();
+        cleared.add(vars.get(100));
+        cleared.clear();
+        assertEquals(empty, cleared);
+        assertEquals(empty.hashCode(), cleared.hashCode());
+        assertEquals(new SetFact<Var>(), cleared);
+    }
+
+    @Test
+    public void testMixedKinds() {
+        BitSetFact bits = new BitSetFact();
+        bits.add(vars.get(3));
+        bits.add(vars.get(70));
+        SetFact<Var> set = new SetFact<>(List.of(vars.get(3), vars.get(70)));
+        assertEquals(set, bits);
+        assertEquals(bits, set);
+        assertEquals(set.hashCode(), bits.hashCode());
+
+        SetFact<Var> other = new SetFact<>(List.of(vars.get(5)));
+        assertTrue(other.union(bits));
+        assertEquals(Set.of(vars.get(3), vars.get(5), vars.get(70)),
+                Set.copyOf(other.stream().toList()));
+        assertFalse(other.union(bits));
+
+        BitSetFact small = new BitSetFact();
+        small.add(vars.get(70));
+        assertTrue(other.intersect(small));
+        assertEquals(small, other);
+        assertEquals(other, small);
+    }
+}
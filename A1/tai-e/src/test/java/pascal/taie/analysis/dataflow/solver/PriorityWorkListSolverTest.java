@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.TestIRs;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PriorityWorkListSolverTest {
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    /**
+     * The default solver visits the nodes in program order, which is
+     * the worst order for a backward analysis on a chain of copies, while
+     * the priority solver visits each node of the chain once.
+     */
+    @Test
+    public void testFewerTransfers() {
+        CFG<Stmt> cfg = TestIRs.buildCFG(makeLoop(20));
+        CountingAnalysis<Stmt, SetFact<Var>> byDefault = livevar("default");
+        CountingAnalysis<Stmt, SetFact<Var>> byPriority = livevar("priority");
+        DataflowResult<Stmt, SetFact<Var>> expected =
+                Solver.makeSolver(byDefault, "default").solve(cfg);
+        DataflowResult<Stmt, SetFact<Var>> actual =
+                Solver.makeSolver(byPriority, "priority").solve(cfg);
+        for (Stmt stmt : cfg) {
+            if (!cfg.isExit(stmt)) {
+                assertEquals(expected.getInFact(stmt), actual.getInFact(stmt));
+                assertEquals(expected.getOutFact(stmt), actual.getOutFact(stmt));
+            }
+        }
+        assertTrue("default: " + byDefault.transfers +
+                        ", priority: " + byPriority.transfers,
+                byPriority.transfers < byDefault.transfers);
+        // one pass over the loop, and one more pass to confirm
+        // that the loop has converged
+        assertTrue(byPriority.transfers <= 2 * cfg.getNumberOfNodes());
+    }
+
+    /**
+     * Creates the IR of:
+     * <pre>
+     * 0:   v1 = v0
+     * ...
+     * n-1: vn = v(n-1)
+     * n:   if (v0 < vn) goto 0
+     * n+1: return vn
+     * </pre>
+     */
+    private static IR makeLoop(int n) {
+        JMethod method = TestIRs.makeMethod("loop", List.of());
+        List<Var> vars = TestIRs.makeVars(method, n + 1);
+        List<Stmt> stmts = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            stmts.add(new Copy(vars.get(i + 1), vars.get(i)));
+        }
+        If loop = new If(new ConditionExp(
+                ConditionExp.Op.LT, vars.get(0), vars.get(n)));
+        loop.setTarget(stmts.get(0));
+        stmts.add(loop);
+        stmts.add(new Return(vars.get(n)));
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR ir = new DefaultIR(method, null, List.of(), Set.of(vars.get(n)),
+                vars, stmts, List.of());
+        TestIRs.setUpWorld(m -> ir);
+        return ir;
+    }
+
+    private static CountingAnalysis<Stmt, SetFact<Var>> livevar(String solver) {
+        return new CountingAnalysis<>(new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "dense-fact", false,
+                        "solver", solver)));
+    }
+
+    /**
+     * Counts the calls to the node transfer function of given analysis.
+     */
+    private static class CountingAnalysis<Node, Fact>
+            implements DataflowAnalysis<Node, Fact> {
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        private int transfers;
+
+        private CountingAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+            this.analysis = analysis;
+        }
+
+        @Override
+        public boolean isForward() {
+            return analysis.isForward();
+        }
+
+        @Override
+        public Fact newBoundaryFact(CFG<Node> cfg) {
+            return analysis.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public Fact newInitialFact() {
+            return analysis.newInitialFact();
+        }
+
+        @Override
+        public void meetInto(Fact fact, Fact target) {
+            analysis.meetInto(fact, target);
+        }
+
+        @Override
+        public boolean transferNode(Node node, Fact in, Fact out) {
+            ++transfers;
+            return analysis.transferNode(node, in, out);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Node> edge) {
+            return analysis.needTransferEdge(edge);
+        }
+
+        @Override
+        public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+            return analysis.transferEdge(edge, nodeFact);
+        }
+    }
+}
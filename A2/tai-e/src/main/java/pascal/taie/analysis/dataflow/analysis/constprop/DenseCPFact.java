@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DenseMapFact;
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link CPFact} backed by a {@link DenseMapFact}, i.e., an array of
+ * lattice values indexed by variables. As in {@link CPFact},
+ * absence represents UNDEF.
+ * <p>
+ * The facts of an analysis should be either all {@link DenseCPFact}s
+ * or none of them.
+ */
+public class DenseCPFact extends CPFact {
+
+    private final DenseMapFact<Value> values;
+
+    public DenseCPFact() {
+        this(new DenseMapFact<>());
+    }
+
+    private DenseCPFact(DenseMapFact<Value> values) {
+        super(Map::of);
+        this.values = values;
+    }
+
+    @Override
+    public Value get(Var key) {
+        Value value = values.get(key);
+        return value != null ? value : Value.getUndef();
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        if (value.isUndef()) {
+            return remove(key) != null;
+        } else {
+            return values.update(key, value);
+        }
+    }
+
+    @Override
+    public Value remove(Var key) {
+        return values.remove(key);
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        return fact instanceof DenseCPFact that ?
+                values.copyFrom(that.values) : values.copyFrom(fact);
+    }
+
+    @Override
+    public DenseCPFact copy() {
+        return new DenseCPFact(values.copy());
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return values.keySet();
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return values.entries();
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        values.forEach(action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof DenseCPFact that && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -26,6 +26,7 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -50,6 +51,27 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind kind of the solver, "default" (or null) for the solver
+     *             given by {@link #makeSolver(DataflowAnalysis)}, or
+     *             "priority" for the solver that processes nodes in reverse
+     *             postorder and converges loops one by one.
+     * @throws ConfigException if kind is unknown.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind) {
+        if (kind == null || kind.equals("default")) {
+            return makeSolver(analysis);
+        } else if (kind.equals("priority")) {
+            return new PriorityWorkListSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown data-flow solver: " + kind);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
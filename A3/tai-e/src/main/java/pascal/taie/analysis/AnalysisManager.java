@@ -0,0 +1,268 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and executes analyses based on given analysis plan.
+ * <p>
+ * Consecutive method analyses in the plan that enable option
+ * {@link #PIPELINE} are fused into a pipeline: instead of traversing
+ * the method scope once per analysis, each method is passed through
+ * the whole chain of method analyses in a single task, so that its IR and
+ * intermediate results are still hot when the next analysis in the chain
+ * consumes them. As the plan is ordered by dependencies, and a method
+ * analysis only depends on the results of the same method, this computes
+ * the same results as running the analyses one after another.
+ * Other method analyses run one by one over the method scope.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Option of method analyses. If it is true, the analysis is fused
+     * with its adjacent method analyses that also enable this option.
+     */
+    private static final String PIPELINE = "pipeline";
+
+    /**
+     * Option of pipelined method analyses. If it is false, the result of
+     * the analysis on each method is dropped as soon as the pipeline
+     * containing the analysis finishes the method.
+     */
+    private static final String KEEP_RESULT = "keep-result";
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    /**
+     * Executes the analysis plan.
+     */
+    public void execute(List<AnalysisConfig> analyses) {
+        List<AnalysisConfig> pipeline = new ArrayList<>();
+        for (AnalysisConfig config : analyses) {
+            if (isPipelined(config)) {
+                pipeline.add(config);
+            } else {
+                runPipeline(pipeline);
+                pipeline.clear();
+                Timer.runAndCount(() -> runAnalysis(config), config.getId());
+            }
+        }
+        runPipeline(pipeline);
+    }
+
+    private static boolean isPipelined(AnalysisConfig config) {
+        return MethodAnalysis.class.isAssignableFrom(getAnalysisClass(config))
+                && config.getOptions().getBooleanOrDefault(PIPELINE, false);
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Analysis analysis = newAnalysis(config);
+        if (analysis instanceof ProgramAnalysis) {
+            runProgramAnalysis((ProgramAnalysis) analysis);
+        } else if (analysis instanceof ClassAnalysis) {
+            runClassAnalysis((ClassAnalysis) analysis);
+        } else if (analysis instanceof MethodAnalysis) {
+            runMethodAnalysis((MethodAnalysis) analysis);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+        }
+    }
+
+    private static Class<?> getAnalysisClass(AnalysisConfig config) {
+        try {
+            return Class.forName(config.getAnalysisClass());
+        } catch (ClassNotFoundException e) {
+            throw new AnalysisException(
+                    "Failed to initialize " + config.getAnalysisClass(), e);
+        }
+    }
+
+    private static Analysis newAnalysis(AnalysisConfig config) {
+        try {
+            Constructor<?> ctor = getAnalysisClass(config)
+                    .getConstructor(AnalysisConfig.class);
+            return (Analysis) ctor.newInstance(config);
+        } catch (NoSuchMethodException | InstantiationException |
+                 IllegalAccessException | InvocationTargetException e) {
+            throw new AnalysisException(
+                    "Failed to initialize " + config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get()
+                        .getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get()
+                        .getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        getMethodScope().parallelStream().forEach(m -> {
+            IR ir = m.getIR();
+            Object result = analysis.analyze(ir);
+            if (result != null) {
+                ir.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    /**
+     * Runs a pipeline of consecutive method analyses on the method scope.
+     * <p>
+     * The analyses are created when the pipeline starts, i.e., after all
+     * preceding analyses in the plan finish. Each method then runs through
+     * all analyses of the pipeline in one task. Methods are scheduled
+     * dynamically, largest first, so that the few huge methods are started
+     * early instead of being left to straggling threads at the end.
+     */
+    private void runPipeline(List<AnalysisConfig> pipeline) {
+        if (pipeline.isEmpty()) {
+            return;
+        }
+        String name = pipeline.stream()
+                .map(AnalysisConfig::getId)
+                .collect(Collectors.joining("+"));
+        Timer.runAndCount(() -> {
+            List<MethodAnalysis> analyses = pipeline.stream()
+                    .map(config -> (MethodAnalysis) newAnalysis(config))
+                    .toList();
+            List<String> dropped = analyses.stream()
+                    .filter(a -> !a.getOptions().getBooleanOrDefault(KEEP_RESULT, true))
+                    .map(Analysis::getId)
+                    .toList();
+            runLargestFirst(getMethodScope(), method -> {
+                IR ir = method.getIR();
+                for (MethodAnalysis analysis : analyses) {
+                    Object result = analysis.analyze(ir);
+                    if (result != null) {
+                        ir.storeResult(analysis.getId(), result);
+                    }
+                }
+                dropped.forEach(ir::clearResult);
+            });
+        }, name);
+    }
+
+    /**
+     * Applies given action to each method, scheduled in descending order
+     * of method size. Size is estimated by the number of statements in IR,
+     * thus the IRs of all methods are built (in parallel) beforehand.
+     * Each worker of the common pool repeatedly claims the largest method
+     * that has not been processed, until all methods are claimed.
+     */
+    private static void runLargestFirst(List<JMethod> methods,
+                                        Consumer<JMethod> action) {
+        methods.parallelStream().forEach(JMethod::getIR);
+        List<JMethod> sorted = methods.stream()
+                .sorted(Comparator.comparingInt(
+                        (JMethod m) -> m.getIR().getStmts().size()).reversed())
+                .toList();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(pool.getParallelism(), sorted.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; ++w) {
+            tasks.add(pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < sorted.size()) {
+                    action.accept(sorted.get(i));
+                }
+            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+}
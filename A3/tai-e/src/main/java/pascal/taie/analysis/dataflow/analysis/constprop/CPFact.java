@@ -27,6 +27,7 @@ import pascal.taie.ir.exp.Var;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Represents data facts of constant propagation, which maps variables
@@ -48,6 +49,15 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructs a CPFact backed by the map created by given factory.
+     * Subclasses which hold the mappings by themselves pass
+     * {@code Map::of}.
+     */
+    protected CPFact(Supplier<? extends Map<Var, Value>> mapFactory) {
+        super(mapFactory);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
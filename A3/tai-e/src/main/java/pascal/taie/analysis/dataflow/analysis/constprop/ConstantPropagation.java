@@ -23,7 +23,9 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
@@ -41,8 +43,36 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether the facts are {@link DenseCPFact}s, given by option "dense-fact".
+     */
+    private final boolean denseFact;
+
+    /**
+     * Whether the analysis is solved sparsely over def-use chains,
+     * given by option "sparse".
+     */
+    private final boolean sparse;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        denseFact = getOptions().getBooleanOrDefault("dense-fact", false);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+    }
+
+    /**
+     * If option "sparse" is enabled, the result is computed by
+     * {@link SparseConstantPropagation}, which keeps one value per
+     * variable definition, and builds the facts of a statement
+     * only when they are queried.
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return SparseConstantPropagation.solve(this, cfg);
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -52,7 +82,7 @@ public class ConstantPropagation extends
 
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
-        CPFact fact = new CPFact();
+        CPFact fact = newFact();
         Value nac = Value.getNAC();
         for(Var var : cfg.getIR().getParams()){
             if(canHoldInt(var)) fact.update(var,nac);
@@ -62,7 +92,11 @@ public class ConstantPropagation extends
 
     @Override
     public CPFact newInitialFact() {
-        return new CPFact();
+        return newFact();
+    }
+
+    private CPFact newFact() {
+        return denseFact ? new DenseCPFact() : new CPFact();
     }
 
     @Override
@@ -0,0 +1,631 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse constant propagation, which keeps one {@link Value}
+ * per definition of variable instead of one {@link CPFact} per statement.
+ * <p>
+ * The CFG is put in SSA form implicitly: a phi is placed for a variable
+ * at the iterated dominance frontier of its definitions, and the
+ * definition (or phi) of a variable that reaches a statement is the
+ * nearest one that dominates the statement. The values of definitions
+ * and phis are then propagated along def-use chains until they are stable.
+ * As the absence of definition (UNDEF) is the identity of meet, this
+ * computes the same values as the dense analysis, whose facts are
+ * exactly the meets over reaching definitions.
+ * <p>
+ * The statements unreachable from the entry are handled as if they were
+ * reachable from a virtual root which defines no variable, so that they
+ * get the same facts as in the dense analysis.
+ */
+class SparseConstantPropagation {
+
+    /**
+     * Kinds of sites. A phi (or a parameter at the entry) holds the value
+     * at the entry of its node, and a definition holds the value at
+     * the exit of its node, thus it is ordered after phi in the same node.
+     */
+    private static final int PHI = 0, DEF = 1;
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    private final List<Stmt> nodes = new ArrayList<>();
+
+    private final Map<Stmt, Integer> indexes = Maps.newMap();
+
+    /**
+     * Number of nodes, the index of the virtual root.
+     */
+    private int root;
+
+    /**
+     * Preorder number of each node in the dominator tree, and the largest
+     * preorder number in the subtree of each node. Node a dominates node b
+     * iff pre[a] <= pre[b] <= last[a].
+     */
+    private int[] pre, last;
+
+    /**
+     * Whether each node is a successor of the virtual root.
+     */
+    private boolean[] isRootSucc;
+
+    // sites, i.e., definitions and phis of variables
+    private int nSites;
+
+    private int[] siteNode = new int[16], siteVar = new int[16], siteKind = new int[16];
+
+    /**
+     * Parent of each site, i.e., the nearest site of the same variable
+     * whose node dominates the node of the site.
+     */
+    private int[] siteParent;
+
+    /**
+     * Sites that each site reads, i.e., for a definition, the sites
+     * reaching its uses, and for a phi, the sites reaching the ends
+     * of the predecessors. -1 stands for no reaching site.
+     */
+    private int[][] operands;
+
+    private int[][] users;
+
+    private Value[] values;
+
+    /**
+     * Sites of each variable (indexed by {@link Var#getIndex()}),
+     * sorted by preorder number of nodes and then kinds.
+     */
+    private int[][] varSites;
+
+    private SparseConstantPropagation(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+    }
+
+    /**
+     * Solves constant propagation on given CFG.
+     *
+     * @return the result, whose facts are computed on demand when queried.
+     */
+    static DataflowResult<Stmt, CPFact> solve(
+            ConstantPropagation analysis, CFG<Stmt> cfg) {
+        SparseConstantPropagation cp = new SparseConstantPropagation(analysis, cfg);
+        cp.buildSSA();
+        cp.propagate();
+        return cp.new Result();
+    }
+
+    private void buildSSA() {
+        int[] idom = computeDominators();
+        computeDominatorTreeOrder(idom);
+        int[][] df = computeDominanceFrontiers(idom);
+        int nVars = cfg.getIR().getVars().size();
+        // definitions
+        for (Var param : cfg.getIR().getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                addSite(indexes.get(cfg.getEntry()), param.getIndex(), PHI);
+            }
+        }
+        for (int i = 0; i < root; ++i) {
+            Var def = getDef(nodes.get(i));
+            if (def != null) {
+                addSite(i, def.getIndex(), DEF);
+            }
+        }
+        // phis at iterated dominance frontiers
+        List<List<Integer>> defNodes = new ArrayList<>(nVars);
+        for (int v = 0; v < nVars; ++v) {
+            defNodes.add(new ArrayList<>());
+        }
+        int nDefs = nSites;
+        for (int s = 0; s < nDefs; ++s) {
+            defNodes.get(siteVar[s]).add(siteNode[s]);
+        }
+        int[] hasPhi = new int[root];
+        int[] inWork = new int[root];
+        Arrays.fill(hasPhi, -1);
+        Arrays.fill(inWork, -1);
+        int[] work = new int[root];
+        for (int v = 0; v < nVars; ++v) {
+            int top = 0;
+            for (int n : defNodes.get(v)) {
+                if (inWork[n] != v) {
+                    inWork[n] = v;
+                    work[top++] = n;
+                }
+            }
+            while (top > 0) {
+                int x = work[--top];
+                for (int y : df[x]) {
+                    if (hasPhi[y] != v) {
+                        hasPhi[y] = v;
+                        addSite(y, v, PHI);
+                        if (inWork[y] != v) {
+                            inWork[y] = v;
+                            work[top++] = y;
+                        }
+                    }
+                }
+            }
+        }
+        sortSites(nVars);
+        resolveOperands();
+    }
+
+    /**
+     * @return the variable defined by given node that can hold integers,
+     * or null if it does not define such a variable.
+     */
+    private static Var getDef(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> definitionStmt) {
+            LValue lValue = definitionStmt.getLValue();
+            if (lValue instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                return var;
+            }
+        }
+        return null;
+    }
+
+    private void addSite(int node, int var, int kind) {
+        if (nSites == siteNode.length) {
+            int length = nSites * 2;
+            siteNode = Arrays.copyOf(siteNode, length);
+            siteVar = Arrays.copyOf(siteVar, length);
+            siteKind = Arrays.copyOf(siteKind, length);
+        }
+        siteNode[nSites] = node;
+        siteVar[nSites] = var;
+        siteKind[nSites] = kind;
+        ++nSites;
+    }
+
+    /**
+     * Numbers the nodes, and computes immediate dominators by
+     * the iterative algorithm of Cooper, Harvey and Kennedy.
+     * The virtual root is an immediate predecessor of the entry and
+     * of one node of each part of the CFG unreachable from the entry.
+     *
+     * @return the immediate dominator of each node.
+     */
+    private int[] computeDominators() {
+        for (Stmt node : cfg) {
+            indexes.put(node, nodes.size());
+            nodes.add(node);
+        }
+        root = nodes.size();
+        // depth-first search from the virtual root, which starts from
+        // the entry, then the nodes without predecessors, and then
+        // any node that is still not visited (i.e., in unreachable loops)
+        List<Stmt> starts = new ArrayList<>();
+        starts.add(cfg.getEntry());
+        for (Stmt node : nodes) {
+            if (cfg.getPredsOf(node).isEmpty() && !cfg.isEntry(node)) {
+                starts.add(node);
+            }
+        }
+        starts.addAll(nodes);
+        isRootSucc = new boolean[root];
+        int[] postorder = new int[root + 1];
+        int nPost = 0;
+        boolean[] visited = new boolean[root];
+        int[] stack = new int[root];
+        List<Iterator<Stmt>> succs = new ArrayList<>(root);
+        for (Stmt node : nodes) {
+            succs.add(cfg.getSuccsOf(node).iterator());
+        }
+        for (Stmt start : starts) {
+            int s = indexes.get(start);
+            if (visited[s]) {
+                continue;
+            }
+            isRootSucc[s] = true;
+            visited[s] = true;
+            int top = 0;
+            stack[top++] = s;
+            while (top > 0) {
+                int n = stack[top - 1];
+                Iterator<Stmt> it = succs.get(n);
+                if (it.hasNext()) {
+                    int m = indexes.get(it.next());
+                    if (!visited[m]) {
+                        visited[m] = true;
+                        stack[top++] = m;
+                    }
+                } else {
+                    --top;
+                    postorder[nPost++] = n;
+                }
+            }
+        }
+        postorder[nPost++] = root;
+        int[] rpoNumber = new int[root + 1];
+        for (int i = 0; i < nPost; ++i) {
+            rpoNumber[postorder[i]] = nPost - 1 - i;
+        }
+        int[] idom = new int[root + 1];
+        Arrays.fill(idom, -1);
+        idom[root] = root;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            // reverse postorder, skipping the virtual root
+            for (int i = nPost - 2; i >= 0; --i) {
+                int n = postorder[i];
+                int newIdom = isRootSucc[n] ? root : -1;
+                for (Stmt pred : cfg.getPredsOf(nodes.get(n))) {
+                    int p = indexes.get(pred);
+                    if (idom[p] != -1) {
+                        newIdom = newIdom == -1 ? p
+                                : intersect(idom, rpoNumber, p, newIdom);
+                    }
+                }
+                if (idom[n] != newIdom) {
+                    idom[n] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        return idom;
+    }
+
+    private static int intersect(int[] idom, int[] rpoNumber, int a, int b) {
+        while (a != b) {
+            while (rpoNumber[a] > rpoNumber[b]) {
+                a = idom[a];
+            }
+            while (rpoNumber[b] > rpoNumber[a]) {
+                b = idom[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Numbers the nodes in preorder of the dominator tree.
+     */
+    private void computeDominatorTreeOrder(int[] idom) {
+        // children of node n are children[start[n] .. start[n + 1])
+        int[] start = new int[root + 2];
+        for (int n = 0; n < root; ++n) {
+            ++start[idom[n] + 1];
+        }
+        for (int i = 1; i < start.length; ++i) {
+            start[i] += start[i - 1];
+        }
+        int[] children = new int[root];
+        int[] fill = Arrays.copyOf(start, root + 1);
+        for (int n = 0; n < root; ++n) {
+            children[fill[idom[n]]++] = n;
+        }
+        pre = new int[root + 1];
+        last = new int[root + 1];
+        int[] stack = new int[root + 1];
+        int[] next = Arrays.copyOf(start, root + 1);
+        int top = 0, counter = 0;
+        stack[top++] = root;
+        pre[root] = counter++;
+        while (top > 0) {
+            int n = stack[top - 1];
+            if (next[n] < start[n + 1]) {
+                int child = children[next[n]++];
+                pre[child] = counter++;
+                stack[top++] = child;
+            } else {
+                --top;
+                last[n] = counter - 1;
+            }
+        }
+    }
+
+    /**
+     * @return the dominance frontier of each node.
+     */
+    private int[][] computeDominanceFrontiers(int[] idom) {
+        int[][] df = new int[root][];
+        int[] size = new int[root];
+        Arrays.fill(df, new int[0]);
+        for (int n = 0; n < root; ++n) {
+            Set<Stmt> preds = cfg.getPredsOf(nodes.get(n));
+            if (preds.size() + (isRootSucc[n] ? 1 : 0) < 2) {
+                continue;
+            }
+            // the virtual root is skipped, as it dominates all nodes
+            for (Stmt pred : preds) {
+                for (int runner = indexes.get(pred);
+                     runner != idom[n]; runner = idom[runner]) {
+                    int[] f = df[runner];
+                    int k = size[runner];
+                    if (k > 0 && f[k - 1] == n) {
+                        // the rest of the path has been visited
+                        // from another predecessor
+                        break;
+                    }
+                    if (k == f.length) {
+                        f = df[runner] = Arrays.copyOf(f, Math.max(4, k * 2));
+                    }
+                    f[k] = n;
+                    size[runner] = k + 1;
+                }
+            }
+        }
+        for (int n = 0; n < root; ++n) {
+            df[n] = Arrays.copyOf(df[n], size[n]);
+        }
+        return df;
+    }
+
+    private boolean dominates(int a, int b) {
+        return pre[a] <= pre[b] && pre[b] <= last[a];
+    }
+
+    private int key(int node, int kind) {
+        return pre[node] * 2 + kind;
+    }
+
+    /**
+     * Groups the sites by variables, sorts them, and links each site
+     * to its parent.
+     */
+    private void sortSites(int nVars) {
+        int[] count = new int[nVars];
+        for (int s = 0; s < nSites; ++s) {
+            ++count[siteVar[s]];
+        }
+        varSites = new int[nVars][];
+        for (int v = 0; v < nVars; ++v) {
+            varSites[v] = new int[count[v]];
+            count[v] = 0;
+        }
+        for (int s = 0; s < nSites; ++s) {
+            int v = siteVar[s];
+            varSites[v][count[v]++] = s;
+        }
+        siteParent = new int[nSites];
+        int[] stack = new int[nSites];
+        for (int[] sites : varSites) {
+            sortByKey(sites);
+            int top = 0;
+            for (int s : sites) {
+                while (top > 0 && !dominates(siteNode[stack[top - 1]], siteNode[s])) {
+                    --top;
+                }
+                siteParent[s] = top > 0 ? stack[top - 1] : -1;
+                stack[top++] = s;
+            }
+        }
+    }
+
+    private void sortByKey(int[] sites) {
+        long[] keyed = new long[sites.length];
+        for (int i = 0; i < sites.length; ++i) {
+            int s = sites[i];
+            keyed[i] = ((long) key(siteNode[s], siteKind[s]) << 32) | s;
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < sites.length; ++i) {
+            sites[i] = (int) keyed[i];
+        }
+    }
+
+    /**
+     * Finds the site of given variable that reaches given point.
+     *
+     * @param kind PHI for the entry of given node, DEF for the exit.
+     * @return the reaching site, or -1 if no site reaches the point.
+     */
+    private int lookup(int var, int node, int kind) {
+        int[] sites = varSites[var];
+        int key = key(node, kind);
+        // binary search for the last site whose key <= given key
+        int lo = 0, hi = sites.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int s = sites[mid];
+            if (key(siteNode[s], siteKind[s]) <= key) {
+                found = s;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        while (found != -1 && !dominates(siteNode[found], node)) {
+            found = siteParent[found];
+        }
+        return found;
+    }
+
+    private void resolveOperands() {
+        operands = new int[nSites][];
+        int[] userCount = new int[nSites];
+        Stmt entry = cfg.getEntry();
+        for (int s = 0; s < nSites; ++s) {
+            Stmt node = nodes.get(siteNode[s]);
+            int[] ops;
+            if (siteKind[s] == DEF) {
+                List<RValue> uses = node.getUses();
+                ops = new int[uses.size()];
+                int k = 0;
+                for (RValue use : uses) {
+                    if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                        ops[k++] = lookup(var.getIndex(), siteNode[s], PHI);
+                    }
+                }
+                ops = Arrays.copyOf(ops, k);
+            } else if (node == entry) {
+                ops = new int[0]; // parameter
+            } else {
+                int var = siteVar[s];
+                ops = cfg.getPredsOf(node).stream()
+                        .mapToInt(pred -> lookup(var, indexes.get(pred), DEF))
+                        .toArray();
+            }
+            operands[s] = ops;
+            for (int op : ops) {
+                if (op != -1) {
+                    ++userCount[op];
+                }
+            }
+        }
+        users = new int[nSites][];
+        for (int s = 0; s < nSites; ++s) {
+            users[s] = new int[userCount[s]];
+            userCount[s] = 0;
+        }
+        for (int s = 0; s < nSites; ++s) {
+            for (int op : operands[s]) {
+                if (op != -1) {
+                    users[op][userCount[op]++] = s;
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates the values of sites along def-use chains until they
+     * are stable.
+     */
+    private void propagate() {
+        values = new Value[nSites];
+        Arrays.fill(values, Value.getUndef());
+        BitSet workList = new BitSet(nSites);
+        workList.set(0, nSites);
+        for (int s = workList.nextSetBit(0); s >= 0;
+             s = workList.nextSetBit(0)) {
+            workList.clear(s);
+            Value value = evaluate(s);
+            if (!value.equals(values[s])) {
+                values[s] = value;
+                for (int user : users[s]) {
+                    workList.set(user);
+                }
+            }
+        }
+    }
+
+    private Value evaluate(int site) {
+        int[] ops = operands[site];
+        Stmt node = nodes.get(siteNode[site]);
+        if (siteKind[site] == DEF) {
+            CPFact in = new CPFact();
+            for (int op : ops) {
+                if (op != -1) {
+                    in.update(getVar(op), values[op]);
+                }
+            }
+            Exp rValue = ((DefinitionStmt<?, ?>) node).getRValue();
+            return ConstantPropagation.evaluate(rValue, in);
+        } else if (cfg.isEntry(node)) {
+            return Value.getNAC(); // parameter
+        } else {
+            Value value = Value.getUndef();
+            for (int op : ops) {
+                if (op != -1) {
+                    value = analysis.meetValue(value, values[op]);
+                }
+            }
+            return value;
+        }
+    }
+
+    private Var getVar(int site) {
+        return cfg.getIR().getVar(siteVar[site]);
+    }
+
+    /**
+     * View of the data-flow result, which builds the fact of a node
+     * from the values of the sites reaching it when the node is first
+     * queried, and caches the fact. Only the variables that have sites
+     * are looked up, as the others are UNDEF everywhere.
+     */
+    private class Result extends DataflowResult<Stmt, CPFact> {
+
+        /**
+         * Indexes of the variables that have sites.
+         */
+        private final int[] definedVars = IntStream
+                .range(0, varSites.length)
+                .filter(v -> varSites[v].length > 0)
+                .toArray();
+
+        @Override
+        public CPFact getInFact(Stmt node) {
+            CPFact fact = super.getInFact(node);
+            if (fact == null) {
+                fact = getFact(node, PHI);
+                if (fact != null) {
+                    super.setInFact(node, fact);
+                }
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt node) {
+            CPFact fact = super.getOutFact(node);
+            if (fact == null) {
+                fact = getFact(node, DEF);
+                if (fact != null) {
+                    super.setOutFact(node, fact);
+                }
+            }
+            return fact;
+        }
+
+        private CPFact getFact(Stmt node, int kind) {
+            Integer n = indexes.get(node);
+            if (n == null) {
+                return null;
+            }
+            CPFact fact = analysis.newInitialFact();
+            for (int v : definedVars) {
+                int s = lookup(v, n, kind);
+                if (s != -1) {
+                    fact.update(cfg.getIR().getVar(v), values[s]);
+                }
+            }
+            return fact;
+        }
+    }
+}
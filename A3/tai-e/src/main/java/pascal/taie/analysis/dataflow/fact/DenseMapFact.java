@@ -0,0 +1,238 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Map-like data-flow facts from variables to values, which are
+ * represented by arrays indexed by {@link Var#getIndex()}, so that copy
+ * and comparison of two such facts take time proportional to
+ * the number of variables, without hashing.
+ * <p>
+ * All variables in a fact must belong to the same {@link IR}.
+ * null values are not stored, i.e., updating a variable to null
+ * removes it from the fact.
+ *
+ * @param <V> type of values
+ */
+public class DenseMapFact<V> extends MapFact<Var, V> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * The IR which the variables in this fact belong to,
+     * or null if no variables have been added yet.
+     */
+    private IR ir;
+
+    private Object[] values;
+
+    private int size;
+
+    public DenseMapFact() {
+        super(Map::of);
+        values = EMPTY;
+    }
+
+    private DenseMapFact(DenseMapFact<V> other) {
+        super(Map::of);
+        ir = other.ir;
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Var key) {
+        int i = key.getIndex();
+        return i < values.length ? (V) values[i] : null;
+    }
+
+    @Override
+    public boolean update(Var key, V value) {
+        if (value == null) {
+            return remove(key) != null;
+        }
+        if (ir == null) {
+            ir = key.getMethod().getIR();
+        }
+        int i = key.getIndex();
+        if (i >= values.length) {
+            values = Arrays.copyOf(values,
+                    Math.max(2 * values.length, ir.getVars().size()));
+        }
+        Object old = values[i];
+        values[i] = value;
+        if (old == null) {
+            ++size;
+        }
+        return !value.equals(old);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Var key) {
+        int i = key.getIndex();
+        if (i >= values.length || values[i] == null) {
+            return null;
+        }
+        V old = (V) values[i];
+        values[i] = null;
+        --size;
+        return old;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean copyFrom(MapFact<Var, V> fact) {
+        boolean changed = false;
+        if (fact instanceof DenseMapFact<V> that) {
+            for (int i = 0; i < that.values.length; ++i) {
+                if (that.values[i] != null) {
+                    changed |= update(that.ir.getVar(i), (V) that.values[i]);
+                }
+            }
+        } else {
+            Iterator<Map.Entry<Var, V>> it = fact.entries().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Var, V> entry = it.next();
+                changed |= update(entry.getKey(), entry.getValue());
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public DenseMapFact<V> copy() {
+        return new DenseMapFact<>(this);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Var var && get(var) != null;
+            }
+
+            @Override
+            public Iterator<Var> iterator() {
+                // not ir::getVar, as ir is null until a variable is added
+                return indexes().mapToObj(i -> ir.getVar(i)).iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Map.Entry<Var, V>> entries() {
+        return indexes().mapToObj(i -> Map.entry(ir.getVar(i), (V) values[i]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<Var, V> action) {
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != null) {
+                action.accept(ir.getVar(i), (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return indexes of the variables in this fact, in ascending order.
+     */
+    private IntStream indexes() {
+        return IntStream.range(0, values.length)
+                .filter(i -> values[i] != null);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DenseMapFact<?> that = (DenseMapFact<?>) o;
+        if (size != that.size) {
+            return false;
+        }
+        int common = Math.min(values.length, that.values.length);
+        for (int i = 0; i < common; ++i) {
+            if (!Objects.equals(values[i], that.values[i])) {
+                return false;
+            }
+        }
+        // the two facts have the same size, thus the remaining
+        // elements of both arrays must be null
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Map.hashCode()
+        int h = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != null) {
+                h += ir.getVar(i).hashCode() ^ values[i].hashCode();
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
+    }
+}
@@ -25,10 +25,12 @@ package pascal.taie.analysis.dataflow.fact;
 import pascal.taie.util.collection.Maps;
 
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -54,6 +56,16 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a MapFact backed by the map created by given factory.
+     * Subclasses which hold the mappings by themselves pass
+     * {@code Map::of}, and must override all methods that access
+     * {@link #map}.
+     */
+    protected MapFact(Supplier<? extends Map<K, V>> mapFactory) {
+        this.map = mapFactory.get();
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -88,7 +100,9 @@ public class MapFact<K, V> {
      */
     public boolean copyFrom(MapFact<K, V> fact) {
         boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
+        Iterator<Map.Entry<K, V>> it = fact.entries().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
             changed |= update(entry.getKey(), entry.getValue());
         }
         return changed;
@@ -28,10 +28,19 @@ import pascal.taie.analysis.Tests;
 public class DeadCodeTest {
 
     void testDCD(String inputClass) {
+        testDCD(inputClass, false);
+        testDCD(inputClass, true);
+    }
+
+    /**
+     * @param pipeline whether to fuse the method analyses into a pipeline
+     */
+    void testDCD(String inputClass, boolean pipeline) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
-                DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+                DeadCodeDetection.ID, "pipeline:" + pipeline,
+                "-a", "cfg=pipeline:" + pipeline,
+                "-a", "livevar=strongly:false;pipeline:" + pipeline,
+                "-a", "constprop=edge-refine:false;pipeline:" + pipeline);
     }
 
     @Test
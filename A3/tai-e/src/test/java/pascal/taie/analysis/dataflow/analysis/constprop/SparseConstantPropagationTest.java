@@ -0,0 +1,243 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.TestIRs;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.JumpStmt;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the results of sparse and dense constant propagation
+ * on the CFGs of hand-built and random IRs.
+ */
+public class SparseConstantPropagationTest {
+
+    private final JMethod method = TestIRs.makeMethod("m",
+            List.of(PrimitiveType.INT));
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    /**
+     * <pre>
+     * 0: x = 1
+     * 1: i = 0
+     * 2: c = 1
+     * 3: if (n < i) goto 7
+     * 4: i = i + c
+     * 5: y = x + c
+     * 6: goto 3
+     * 7: z = x + y
+     * 8: return z
+     * </pre>
+     */
+    @Test
+    public void testLoop() {
+        Var n = var("n");
+        Var x = var("x"), i = var("i"), c = var("c");
+        Var y = var("y"), z = var("z");
+        add(new AssignLiteral(x, IntLiteral.get(1)));
+        add(new AssignLiteral(i, IntLiteral.get(0)));
+        add(new AssignLiteral(c, IntLiteral.get(1)));
+        If loop = add(new If(new ConditionExp(ConditionExp.Op.LT, n, i)));
+        Stmt inc = add(new Binary(i, new ArithmeticExp(ArithmeticExp.Op.ADD, i, c)));
+        add(new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, c)));
+        Goto back = add(new Goto());
+        Stmt exit = add(new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)));
+        Stmt ret = add(new Return(z));
+        loop.setTarget(exit);
+        back.setTarget(loop);
+        CFG<Stmt> cfg = buildCFG(List.of(n), z);
+        DataflowResult<Stmt, CPFact> sparse = compare(cfg);
+        assertEquals(Value.getNAC(), sparse.getInFact(inc).get(i));
+        assertEquals(Value.makeConstant(2), sparse.getInFact(ret).get(y));
+        assertEquals(Value.makeConstant(3), sparse.getInFact(ret).get(z));
+    }
+
+    /**
+     * <pre>
+     * 0: x = 1
+     * 1: goto 5
+     * 2: x = 2
+     * 3: y = x + x
+     * 4: goto 3
+     * 5: z = x + x
+     * 6: return z
+     * 7: x = 3
+     * 8: goto 5
+     * </pre>
+     * Statements 2-4 and 7-8 are unreachable from the entry,
+     * and 3-4 form a loop.
+     */
+    @Test
+    public void testUnreachable() {
+        Var x = var("x"), y = var("y"), z = var("z");
+        add(new AssignLiteral(x, IntLiteral.get(1)));
+        Goto skip = add(new Goto());
+        add(new AssignLiteral(x, IntLiteral.get(2)));
+        Stmt dead = add(new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x)));
+        Goto deadLoop = add(new Goto());
+        Stmt join = add(new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x)));
+        add(new Return(z));
+        add(new AssignLiteral(x, IntLiteral.get(3)));
+        Goto back = add(new Goto());
+        skip.setTarget(join);
+        deadLoop.setTarget(dead);
+        back.setTarget(join);
+        CFG<Stmt> cfg = buildCFG(List.of(), z);
+        DataflowResult<Stmt, CPFact> sparse = compare(cfg);
+        assertEquals(Value.makeConstant(4), sparse.getOutFact(dead).get(y));
+    }
+
+    /**
+     * Compares sparse and dense constant propagation on random CFGs,
+     * which contain loops, unreachable statements, and variables
+     * without definitions.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; ++i) {
+            vars.clear();
+            stmts.clear();
+            compare(buildRandomCFG(random));
+        }
+    }
+
+    private CFG<Stmt> buildRandomCFG(Random random) {
+        int nVars = 1 + random.nextInt(5);
+        for (int v = 0; v < nVars; ++v) {
+            var("v" + v);
+        }
+        int nStmts = 1 + random.nextInt(15);
+        List<JumpStmt> jumps = new ArrayList<>();
+        for (int s = 0; s < nStmts; ++s) {
+            Var x = randomVar(random), y = randomVar(random), z = randomVar(random);
+            switch (random.nextInt(7)) {
+                case 0 -> add(new AssignLiteral(x, IntLiteral.get(random.nextInt(3))));
+                case 1 -> add(new Copy(x, y));
+                case 2 -> add(new Binary(x, new ArithmeticExp(
+                        ArithmeticExp.Op.values()[random.nextInt(5)], y, z)));
+                case 3 -> add(new Binary(x, new ConditionExp(ConditionExp.Op.LT, y, z)));
+                case 4 -> jumps.add(add(new If(new ConditionExp(ConditionExp.Op.EQ, y, z))));
+                case 5 -> jumps.add(add(new Goto()));
+                default -> add(new Nop());
+            }
+        }
+        Var ret = randomVar(random);
+        add(new Return(ret));
+        for (JumpStmt jump : jumps) {
+            Stmt target = stmts.get(random.nextInt(stmts.size()));
+            if (jump instanceof If ifStmt) {
+                ifStmt.setTarget(target);
+            } else {
+                ((Goto) jump).setTarget(target);
+            }
+        }
+        List<Var> params = random.nextBoolean() ? List.of(vars.get(0)) : List.of();
+        return buildCFG(params, ret);
+    }
+
+    private Var randomVar(Random random) {
+        return vars.get(random.nextInt(vars.size()));
+    }
+
+    private Var var(String name) {
+        Var var = new Var(method, name, PrimitiveType.INT, vars.size());
+        vars.add(var);
+        return var;
+    }
+
+    private <S extends Stmt> S add(S stmt) {
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+        return stmt;
+    }
+
+    private CFG<Stmt> buildCFG(List<Var> params, Var ret) {
+        IR ir = new DefaultIR(method, null, params, Set.of(ret),
+                vars, stmts, List.of());
+        TestIRs.setUpWorld(m -> ir);
+        return TestIRs.buildCFG(ir);
+    }
+
+    /**
+     * Checks that sparse constant propagation gives the same facts
+     * as the dense one at every statement of given CFG.
+     *
+     * @return the result of sparse constant propagation.
+     */
+    private static DataflowResult<Stmt, CPFact> compare(CFG<Stmt> cfg) {
+        DataflowResult<Stmt, CPFact> dense = analyze(cfg, false);
+        DataflowResult<Stmt, CPFact> sparse = analyze(cfg, true);
+        for (Stmt stmt : cfg) {
+            assertEquals(stmt.toString(),
+                    dense.getInFact(stmt), sparse.getInFact(stmt));
+            assertEquals(stmt.toString(),
+                    dense.getOutFact(stmt), sparse.getOutFact(stmt));
+        }
+        return sparse;
+    }
+
+    private static DataflowResult<Stmt, CPFact> analyze(
+            CFG<Stmt> cfg, boolean sparse) {
+        // the default solver of this assignment leaves forward analyses unimplemented
+        return new ConstantPropagation(new AnalysisConfig(
+                ConstantPropagation.ID, "edge-refine", false,
+                "dense-fact", false, "solver", "priority", "sparse", sparse))
+                .analyze(cfg.getIR());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.TestIRs;
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DenseMapFactTest {
+
+    private final List<Var> vars = TestIRs.makeVars(200);
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    public void testEqualsAcrossLengths() {
+        DenseMapFact<Integer> shorter = new DenseMapFact<>();
+        shorter.update(vars.get(1), 1);
+        DenseMapFact<Integer> longer = new DenseMapFact<>();
+        longer.update(vars.get(1), 1);
+        // grows the values, then removes the last variable
+        longer.update(vars.get(150), 2);
+        longer.remove(vars.get(150));
+        assertEquals(shorter, longer);
+        assertEquals(longer, shorter);
+        assertEquals(shorter.hashCode(), longer.hashCode());
+        assertEquals(Map.of(vars.get(1), 1).hashCode(), longer.hashCode());
+
+        longer.update(vars.get(150), 2);
+        assertNotEquals(shorter, longer);
+        assertNotEquals(longer, shorter);
+        longer.update(vars.get(150), null);
+        assertNull(longer.get(vars.get(150)));
+        assertEquals(shorter, longer);
+    }
+
+    @Test
+    public void testEmpty() {
+        DenseMapFact<Integer> empty = new DenseMapFact<>();
+        assertTrue(empty.keySet().isEmpty());
+        assertFalse(empty.keySet().iterator().hasNext());
+        assertEquals("{}", empty.toString());
+        DenseMapFact<Integer> cleared = new DenseMapFact<>();
+        cleared.update(vars.get(100), 1);
+        cleared.clear();
+        assertEquals(empty, cleared);
+        assertEquals(empty.hashCode(), cleared.hashCode());
+    }
+
+    @Test
+    public void testCopyFromOtherKind() {
+        Map<Var, Integer> mappings = Map.of(vars.get(2), 2, vars.get(80), 80);
+        MapFact<Var, Integer> map = new MapFact<>(mappings);
+        DenseMapFact<Integer> dense = new DenseMapFact<>();
+        assertTrue(dense.copyFrom(map));
+        assertEquals(mappings.hashCode(), dense.hashCode());
+        assertEquals(Set.of(vars.get(2), vars.get(80)), dense.keySet());
+        MapFact<Var, Integer> back = new MapFact<>(Map.of());
+        assertTrue(back.copyFrom(dense));
+        assertEquals(map, back);
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.fact;
 import pascal.taie.util.collection.Maps;
 
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -88,7 +89,9 @@ public class MapFact<K, V> {
      */
     public boolean copyFrom(MapFact<K, V> fact) {
         boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
+        Iterator<Map.Entry<K, V>> it = fact.entries().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
             changed |= update(entry.getKey(), entry.getValue());
         }
         return changed;
@@ -51,7 +51,7 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return buildCallGraph(World.get().getMainMethod());
     }
 
-    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+    CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
         // TODO - finish me
@@ -75,8 +75,10 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     /**
      * Resolves call targets (callees) of a call site via CHA.
+     * This only reads the class hierarchy, thus it can be called
+     * concurrently.
      */
-    private Set<JMethod> resolve(Invoke callSite) {
+    Set<JMethod> resolve(Invoke callSite) {
         // TODO - finish me
         Set<JMethod> methods = new HashSet<>();
         Subsignature subsignature = callSite.getMethodRef().getSubsignature();
@@ -85,24 +87,9 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         switch(CallGraphs.getCallKind(callSite)){
             case STATIC -> methods.add(jmethod);
             case SPECIAL -> methods.add(dispatch(jclass, subsignature));
-            case VIRTUAL -> {
-                Queue<JClass> queue = new ArrayDeque<>();
-                queue.add(jclass);
-                while(!queue.isEmpty()) {
-                    JClass jclass1 = queue.poll();
-                    methods.add(dispatch(jclass1, subsignature));
-                    queue.addAll(hierarchy.getDirectSubclassesOf(jclass1));
-                }
-            }
-            case INTERFACE -> {
-                Queue<JClass> queue = new ArrayDeque<>();
-                queue.add(jclass);
-                while(!queue.isEmpty()) {
-                    JClass jclass1 = queue.poll();
-                    methods.add(dispatch(jclass1, subsignature));
-                    queue.addAll(hierarchy.getDirectSubclassesOf(jclass1));
-                    queue.addAll(hierarchy.getDirectImplementorsOf(jclass1));
-                    queue.addAll(hierarchy.getDirectSubinterfacesOf(jclass1));
+            case VIRTUAL, INTERFACE -> {
+                for (JClass subclass : hierarchy.getAllSubclassesOf(jclass)) {
+                    methods.add(dispatch(subclass, subsignature));
                 }
             }
         }
@@ -118,9 +105,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        if(jclass == null) {return null;}
-        JMethod jMethod = jclass.getDeclaredMethod(subsignature);
-        if(jMethod != null &&  !jMethod.isAbstract()) {return jMethod;}
-        else return dispatch(jclass.getSuperClass(), subsignature);
+        return jclass == null ? null : hierarchy.dispatch(jclass, subsignature);
     }
 }
@@ -48,9 +48,15 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private final String algorithm;
 
+    /**
+     * Whether to convert the built call graph to a {@link FrozenCallGraph}.
+     */
+    private final boolean freeze;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        freeze = config.getOptions().getBooleanOrDefault("freeze", false);
     }
 
     @Override
@@ -58,12 +64,19 @@ public class CallGraphBuilder extends ProgramAnalysis {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
             builder = new CHABuilder();
+        } else if (algorithm.equals("cha-parallel")) {
+            builder = new ParallelCHABuilder();
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        if (freeze) {
+            callGraph = new FrozenCallGraph(callGraph);
+        }
         takeAction(callGraph);
         return callGraph;
     }
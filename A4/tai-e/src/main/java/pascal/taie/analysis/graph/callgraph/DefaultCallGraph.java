@@ -77,6 +77,15 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
         }
     }
 
+    /**
+     * Converts this call graph to a compact immutable form.
+     * This call graph is not changed, and should not be modified after
+     * it has been frozen if the two are expected to agree.
+     */
+    public FrozenCallGraph freeze() {
+        return new FrozenCallGraph(this);
+    }
+
     @Override
     public JMethod getContainerOf(Invoke invoke) {
         return invoke.getContainer();
@@ -0,0 +1,545 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.TriConsumer;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) form.
+ * <p>
+ * Methods and call sites are numbered densely. Reachable methods come
+ * first, and the call sites of each method are numbered consecutively,
+ * so the call sites in a method, the callees of a call site and the
+ * callers of a method are all slices of plain arrays. The ID of a method
+ * is found in an open-addressing table keyed by identity, and the ID of
+ * a call site is found by its index ({@link Invoke#getIndex()}) in
+ * an array of its container, so queries do not box or hash.
+ * {@link Edge} objects are only created on demand by the stream-based
+ * queries; the set views are created once per node and reused, and
+ * {@link #forEachEdge(TriConsumer)} does not create any per-edge objects.
+ */
+public class FrozenCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    /**
+     * Methods indexed by ID. The first {@link #numberOfMethods}
+     * of them are the reachable methods.
+     */
+    private final JMethod[] methods;
+
+    /**
+     * Open-addressing table from methods to their IDs, probed linearly
+     * from the identity hash of the method.
+     */
+    private final JMethod[] methodKeys;
+
+    private final int[] methodKeyIds;
+
+    private final int numberOfMethods;
+
+    private final int[] entryMethods;
+
+    /**
+     * Call sites indexed by ID, grouped by container.
+     */
+    private final Invoke[] callSites;
+
+    /**
+     * IDs of the call sites in the i-th method, indexed by their
+     * {@link Invoke#getIndex() indexes}, are at indexes
+     * [stmtStart[i] .. stmtStart[i+1]) of stmtCallSites, and -1 stands
+     * for the statements that are not call sites in this call graph.
+     */
+    private final int[] stmtStart;
+
+    private final int[] stmtCallSites;
+
+    /**
+     * IDs of the call sites that cannot be found by their indexes,
+     * e.g., those without index, which is rarely non-empty.
+     */
+    private final Map<Invoke, Integer> otherCallSiteIds;
+
+    /**
+     * Call sites of the i-th reachable method are
+     * callSites[callSiteStart[i] .. callSiteStart[i+1]).
+     */
+    private final int[] callSiteStart;
+
+    /**
+     * Out-edges of the i-th call site are at indexes
+     * [calleeStart[i] .. calleeStart[i+1]) of callees and calleeKinds.
+     */
+    private final int[] calleeStart;
+
+    private final int[] callees;
+
+    private final byte[] calleeKinds;
+
+    /**
+     * In-edges of the i-th method are at indexes
+     * [callerStart[i] .. callerStart[i+1]) of callers and callerKinds.
+     */
+    private final int[] callerStart;
+
+    private final int[] callers;
+
+    private final byte[] callerKinds;
+
+    // set views of the query results, created on first query
+
+    private final Set<Invoke>[] callerViews;
+
+    private final Set<JMethod>[] calleeViews;
+
+    private final Set<Invoke>[] callSiteViews;
+
+    private final Set<JMethod> nodeView;
+
+    /**
+     * Copies the given call graph. The given call graph must not be
+     * modified while it is being copied.
+     */
+    @SuppressWarnings("unchecked")
+    FrozenCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        // number reachable methods and their call sites
+        List<JMethod> methodList = new ArrayList<>(callGraph.reachableMethods().toList());
+        numberOfMethods = methodList.size();
+        Map<JMethod, Integer> methodIds = Maps.newMap();
+        for (int i = 0; i < numberOfMethods; ++i) {
+            methodIds.put(methodList.get(i), i);
+        }
+        List<Invoke> callSiteList = new ArrayList<>();
+        Map<Invoke, Integer> callSiteIds = Maps.newMap();
+        callSiteStart = new int[numberOfMethods + 1];
+        for (int i = 0; i < numberOfMethods; ++i) {
+            callSiteStart[i] = callSiteList.size();
+            callGraph.callSitesIn(methodList.get(i)).forEach(callSite -> {
+                if (callSiteIds.putIfAbsent(callSite, callSiteList.size()) == null) {
+                    callSiteList.add(callSite);
+                }
+            });
+        }
+        callSiteStart[numberOfMethods] = callSiteList.size();
+        entryMethods = callGraph.entryMethods()
+                .mapToInt(m -> getOrAddId(methodList, methodIds, m))
+                .toArray();
+        // collect edges as (source, target, kind) triples
+        int nEdges = 0;
+        int[] sources = new int[callGraph.getNumberOfEdges()];
+        int[] targets = new int[sources.length];
+        byte[] kinds = new byte[sources.length];
+        for (Iterator<Edge<Invoke, JMethod>> it = callGraph.edges().iterator(); it.hasNext(); ) {
+            Edge<Invoke, JMethod> edge = it.next();
+            if (nEdges == sources.length) {
+                int capacity = Math.max(16, nEdges * 2);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+            }
+            sources[nEdges] = getOrAddId(callSiteList, callSiteIds, edge.getCallSite());
+            targets[nEdges] = getOrAddId(methodList, methodIds, edge.getCallee());
+            kinds[nEdges] = (byte) edge.getKind().ordinal();
+            ++nEdges;
+        }
+        // containers of call sites that are only found by edges
+        for (Invoke callSite : callSiteList) {
+            if (callSite.getContainer() != null) {
+                getOrAddId(methodList, methodIds, callSite.getContainer());
+            }
+        }
+        methods = methodList.toArray(new JMethod[0]);
+        callSites = callSiteList.toArray(new Invoke[0]);
+        // build the lookup tables of method and call site IDs
+        int capacity = Integer.highestOneBit(Math.max(2, methods.length) * 2 - 1) * 2;
+        methodKeys = new JMethod[capacity];
+        methodKeyIds = new int[capacity];
+        for (int m = 0; m < methods.length; ++m) {
+            int slot = hash(methods[m]);
+            while (methodKeys[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            methodKeys[slot] = methods[m];
+            methodKeyIds[slot] = m;
+        }
+        stmtStart = new int[methods.length + 1];
+        for (Invoke callSite : callSites) {
+            int m = getMethodId(callSite.getContainer());
+            if (m != -1) {
+                stmtStart[m + 1] = Math.max(stmtStart[m + 1], callSite.getIndex() + 1);
+            }
+        }
+        Arrays.parallelPrefix(stmtStart, Integer::sum);
+        stmtCallSites = new int[stmtStart[methods.length]];
+        Arrays.fill(stmtCallSites, -1);
+        otherCallSiteIds = Maps.newMap();
+        for (int cs = 0; cs < callSites.length; ++cs) {
+            Invoke callSite = callSites[cs];
+            int m = getMethodId(callSite.getContainer());
+            int index = callSite.getIndex();
+            if (m != -1 && index >= 0 &&
+                    stmtCallSites[stmtStart[m] + index] == -1) {
+                stmtCallSites[stmtStart[m] + index] = cs;
+            } else {
+                otherCallSiteIds.put(callSite, cs);
+            }
+        }
+        // distribute edges into the out- and in-adjacency arrays
+        calleeStart = new int[callSites.length + 1];
+        callees = new int[nEdges];
+        calleeKinds = new byte[nEdges];
+        callerStart = new int[methods.length + 1];
+        callers = new int[nEdges];
+        callerKinds = new byte[nEdges];
+        for (int e = 0; e < nEdges; ++e) {
+            ++calleeStart[sources[e] + 1];
+            ++callerStart[targets[e] + 1];
+        }
+        Arrays.parallelPrefix(calleeStart, Integer::sum);
+        Arrays.parallelPrefix(callerStart, Integer::sum);
+        int[] calleePos = Arrays.copyOf(calleeStart, callSites.length);
+        int[] callerPos = Arrays.copyOf(callerStart, methods.length);
+        for (int e = 0; e < nEdges; ++e) {
+            int out = calleePos[sources[e]]++;
+            callees[out] = targets[e];
+            calleeKinds[out] = kinds[e];
+            int in = callerPos[targets[e]]++;
+            callers[in] = sources[e];
+            callerKinds[in] = kinds[e];
+        }
+        callerViews = new Set[methods.length];
+        calleeViews = new Set[callSites.length];
+        callSiteViews = new Set[numberOfMethods];
+        nodeView = new ArraySlice<>(methods, null, 0, numberOfMethods);
+    }
+
+    private int hash(JMethod method) {
+        int h = System.identityHashCode(method);
+        return (h ^ (h >>> 16)) & (methodKeys.length - 1);
+    }
+
+    /**
+     * @return ID of given method, or -1 if it is not in this call graph.
+     */
+    private int getMethodId(JMethod method) {
+        if (method == null) {
+            return -1;
+        }
+        for (int slot = hash(method); methodKeys[slot] != null;
+             slot = (slot + 1) & (methodKeys.length - 1)) {
+            if (methodKeys[slot] == method) {
+                return methodKeyIds[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return ID of given call site, or -1 if it is not in this call graph.
+     */
+    private int getCallSiteId(Invoke callSite) {
+        int m = getMethodId(callSite.getContainer());
+        int index = callSite.getIndex();
+        if (m != -1 && index >= 0 && index < stmtStart[m + 1] - stmtStart[m]) {
+            int cs = stmtCallSites[stmtStart[m] + index];
+            if (cs != -1 && callSites[cs] == callSite) {
+                return cs;
+            }
+        }
+        if (otherCallSiteIds.isEmpty()) {
+            return -1;
+        }
+        Integer cs = otherCallSiteIds.get(callSite);
+        return cs == null ? -1 : cs;
+    }
+
+    private static <T> int getOrAddId(List<T> elems, Map<T, Integer> ids, T elem) {
+        Integer id = ids.get(elem);
+        if (id == null) {
+            id = elems.size();
+            ids.put(elem, id);
+            elems.add(elem);
+        }
+        return id;
+    }
+
+    /**
+     * Performs the given action for every call edge in this call graph.
+     * Unlike {@link #edges()}, this does not create any objects per edge.
+     */
+    public void forEachEdge(TriConsumer<CallKind, Invoke, JMethod> action) {
+        for (int cs = 0; cs < callSites.length; ++cs) {
+            Invoke callSite = callSites[cs];
+            for (int e = calleeStart[cs]; e < calleeStart[cs + 1]; ++e) {
+                action.accept(KINDS[calleeKinds[e]], callSite, methods[callees[e]]);
+            }
+        }
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int m = getMethodId(callee);
+        if (m == -1) {
+            return Set.of();
+        }
+        Set<Invoke> view = callerViews[m];
+        if (view == null) {
+            // racing threads create equal views, and either one is fine
+            view = callerViews[m] = new ArraySlice<>(
+                    callSites, callers, callerStart[m], callerStart[m + 1]);
+        }
+        return view;
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int cs = getCallSiteId(callSite);
+        if (cs == -1) {
+            return Set.of();
+        }
+        Set<JMethod> view = calleeViews[cs];
+        if (view == null) {
+            view = calleeViews[cs] = new ArraySlice<>(
+                    methods, callees, calleeStart[cs], calleeStart[cs + 1]);
+        }
+        return view;
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke invoke) {
+        return invoke.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int m = getMethodId(method);
+        if (m == -1 || m >= numberOfMethods) {
+            return Set.of();
+        }
+        Set<Invoke> view = callSiteViews[m];
+        if (view == null) {
+            view = callSiteViews[m] = new ArraySlice<>(
+                    callSites, null, callSiteStart[m], callSiteStart[m + 1]);
+        }
+        return view;
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int cs = getCallSiteId(callSite);
+        return cs == -1 ? Stream.of() : edgesOutOf(cs);
+    }
+
+    private Stream<Edge<Invoke, JMethod>> edgesOutOf(int cs) {
+        return IntStream.range(calleeStart[cs], calleeStart[cs + 1])
+                .mapToObj(e -> new Edge<>(KINDS[calleeKinds[e]],
+                        callSites[cs], methods[callees[e]]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int m = getMethodId(method);
+        return m == -1 ? Stream.of() :
+                IntStream.range(callerStart[m], callerStart[m + 1])
+                        .mapToObj(e -> new Edge<>(KINDS[callerKinds[e]],
+                                callSites[callers[e]], method));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, callSites.length)
+                .boxed()
+                .flatMap(this::edgesOutOf);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return callees.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entryMethods).mapToObj(m -> methods[m]);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods, 0, numberOfMethods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return numberOfMethods;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        int m = getMethodId(method);
+        return m != -1 && m < numberOfMethods;
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getCallersOf(target).stream()
+                .anyMatch(cs -> getContainerOf(cs).equals(source));
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return getCallersOf(method)
+                .stream()
+                .map(cs -> new MethodEdge<>(getContainerOf(cs), method, cs))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return callSitesIn(method)
+                .flatMap(cs -> getCalleesOf(cs)
+                        .stream()
+                        .map(callee -> new MethodEdge<>(method, callee, cs)))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return getCallersOf(node)
+                .stream()
+                .map(this::getContainerOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return callSitesIn(node)
+                .flatMap(cs -> getCalleesOf(cs).stream())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return nodeView;
+    }
+
+    /**
+     * Unmodifiable set view of elems[from .. to), or of
+     * elems[ids[from]] .. elems[ids[to - 1]] if ids is not null.
+     */
+    private static class ArraySlice<E> extends AbstractSet<E> {
+
+        private final E[] elems;
+
+        private final int[] ids;
+
+        private final int from;
+
+        private final int to;
+
+        private ArraySlice(E[] elems, int[] ids, int from, int to) {
+            this.elems = elems;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        private E get(int i) {
+            return ids == null ? elems[i] : elems[ids[i]];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (int i = from; i < to; ++i) {
+                if (get(i).equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(i++);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parallel implementation of the CHA algorithm.
+ * <p>
+ * The reachable methods are discovered frontier by frontier, where
+ * a frontier consists of the methods that first become reachable
+ * from the previous one. The IRs of the methods in a frontier are built,
+ * and all call sites in them are resolved, concurrently, as resolution
+ * only reads the class hierarchy. After that, the methods and the
+ * resolved edges are added to the call graph by a single thread,
+ * in the order of the frontier, so that the resulting call graph
+ * is the same as the one built by {@link CHABuilder}, and does not
+ * depend on thread scheduling.
+ */
+class ParallelCHABuilder extends CHABuilder {
+
+    @Override
+    CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            List<List<Edge<Invoke, JMethod>>> edges = frontier.parallelStream()
+                    .map(this::resolveEdges)
+                    .toList();
+            Set<JMethod> next = new LinkedHashSet<>();
+            for (int i = 0; i < frontier.size(); ++i) {
+                callGraph.addReachableMethod(frontier.get(i));
+                for (Edge<Invoke, JMethod> edge : edges.get(i)) {
+                    callGraph.addEdge(edge);
+                    next.add(edge.getCallee());
+                }
+            }
+            next.removeIf(callGraph::contains);
+            frontier = new ArrayList<>(next);
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the call edges out of the call sites in given method.
+     */
+    private List<Edge<Invoke, JMethod>> resolveEdges(JMethod method) {
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        if (!method.isAbstract()) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Invoke callSite) {
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    for (JMethod callee : resolve(callSite)) {
+                        edges.add(new Edge<>(kind, callSite, callee));
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of Rapid Type Analysis (RTA).
+ * <p>
+ * Like CHA, RTA resolves virtual calls by the class hierarchy, but it
+ * only dispatches on the classes that are instantiated (by {@code new})
+ * in reachable methods. As the instantiated classes grow with the
+ * reachable methods, the virtual call sites are kept, grouped by the
+ * declaring classes of their method references, and are resolved again
+ * on each newly-instantiated class.
+ * <p>
+ * Besides {@code new}, the classes of reference literals (e.g., strings
+ * and class literals) loaded in reachable methods are instantiated,
+ * and so are java.lang.String and the array for the arguments of the
+ * main method. Other objects created implicitly, e.g., by native code,
+ * are not considered. Arrays are regarded as instances of
+ * java.lang.Object.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private Set<JClass> instantiatedClasses;
+
+    /**
+     * Map from each class to the virtual (and interface) call sites
+     * whose method references are declared in the class.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        callGraph = new DefaultCallGraph();
+        workList = new ArrayDeque<>();
+        instantiatedClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        // String[] args of main are created by the JVM
+        instantiate(hierarchy.getJREClass(ClassNames.STRING));
+        instantiate(hierarchy.getJREClass(ClassNames.OBJECT));
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                processMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    private void processMethod(JMethod method) {
+        if (method.isAbstract()) {
+            return;
+        }
+        // instantiates the classes first, so that the call sites
+        // in the same method can be dispatched on them
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                instantiate(newStmt.getRValue());
+            } else if (stmt instanceof AssignLiteral assignLiteral &&
+                    assignLiteral.getRValue() instanceof ReferenceLiteral literal &&
+                    literal.getType() instanceof ClassType classType) {
+                // e.g., strings, class literals, and method handles
+                instantiate(classType.getJClass());
+            }
+        }
+        for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+            MethodRef methodRef = callSite.getMethodRef();
+            JClass jclass = methodRef.getDeclaringClass();
+            switch (CallGraphs.getCallKind(callSite)) {
+                case STATIC -> addEdge(callSite, jclass.getDeclaredMethod(
+                        methodRef.getSubsignature()));
+                case SPECIAL -> addEdge(callSite, hierarchy.dispatch(
+                        jclass, methodRef.getSubsignature()));
+                case VIRTUAL, INTERFACE -> {
+                    virtualCallSites.put(jclass, callSite);
+                    Collection<JClass> subclasses = hierarchy.getAllSubclassesOf(jclass);
+                    if (subclasses.size() < instantiatedClasses.size()) {
+                        subclasses.stream()
+                                .filter(instantiatedClasses::contains)
+                                .forEach(c -> dispatch(callSite, c));
+                    } else {
+                        instantiatedClasses.stream()
+                                .filter(c -> hierarchy.isSubclass(jclass, c))
+                                .forEach(c -> dispatch(callSite, c));
+                    }
+                }
+            }
+        }
+    }
+
+    private void instantiate(NewExp newExp) {
+        instantiate(newExp instanceof NewInstance newInstance ?
+                newInstance.getType().getJClass() :
+                hierarchy.getJREClass(ClassNames.OBJECT));
+    }
+
+    private void instantiate(JClass jclass) {
+        if (jclass != null && instantiatedClasses.add(jclass)) {
+            // dispatches the call sites seen so far on the new class
+            virtualCallSites.forEachSet((declaringClass, callSites) -> {
+                if (hierarchy.isSubclass(declaringClass, jclass)) {
+                    callSites.forEach(callSite -> dispatch(callSite, jclass));
+                }
+            });
+        }
+    }
+
+    private void dispatch(Invoke callSite, JClass receiverClass) {
+        addEdge(callSite, hierarchy.dispatch(receiverClass,
+                callSite.getMethodRef().getSubsignature()));
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
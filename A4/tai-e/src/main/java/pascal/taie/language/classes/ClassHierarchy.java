@@ -75,6 +75,24 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return all subtypes of given class, including itself, i.e., for
+     * a class, its direct and indirect subclasses, and for an interface,
+     * its direct and indirect subinterfaces and implementors, and
+     * the subclasses of the implementors. The result is an unmodifiable
+     * view backed by a numbering of the hierarchy, thus it is cheap
+     * to obtain and iterate.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
+    /**
+     * @return true if superclass is subclass itself, one of its direct or
+     * indirect superclasses and superinterfaces, or java.lang.Object.
+     * This takes constant time for the classes in the hierarchy whose
+     * superclasses are all loaded.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -87,6 +105,18 @@ public interface ClassHierarchy {
 
     @Nullable JMethod resolveMethod(MethodRef methodRef);
 
+    /**
+     * Looks up the target method of a virtual dispatch on given class,
+     * i.e., the first non-abstract method with given subsignature declared
+     * in given class or its superclasses. The result is memoized
+     * per (class, subsignature).
+     *
+     * @return the dispatched method, or null if no satisfying method
+     * can be found.
+     */
+    @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature);
+
     /**
      * Obtains a method declared in a JRE class by its signature.
      *
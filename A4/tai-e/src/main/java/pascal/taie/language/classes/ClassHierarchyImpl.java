@@ -28,15 +28,20 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
 import static pascal.taie.util.collection.Sets.newHybridSet;
+import static pascal.taie.util.collection.Sets.newSet;
 
 public class ClassHierarchyImpl implements ClassHierarchy {
 
@@ -65,6 +70,20 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Numbering of the current hierarchy for subtype queries,
+     * built on demand, and discarded when the hierarchy changes.
+     */
+    private volatile HierarchyNumbering numbering;
+
+    /**
+     * Map from (class, subsignature) to the result of
+     * {@link #dispatch(JClass, Subsignature)}. Empty optional means
+     * that no method can be dispatched.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> dispatchTable
+            = newConcurrentMap();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -117,6 +136,9 @@ public class ClassHierarchyImpl implements ClassHierarchy {
                         .add(jclass);
             }
         }
+        // the cached results may be stale after the hierarchy changes
+        numbering = null;
+        dispatchTable.clear();
     }
 
     @Override
@@ -160,6 +182,69 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    private HierarchyNumbering getNumbering() {
+        HierarchyNumbering result = numbering;
+        if (result == null) {
+            synchronized (this) {
+                result = numbering;
+                if (result == null) {
+                    result = numbering = new HierarchyNumbering(this);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        HierarchyNumbering numbering = getNumbering();
+        if (numbering.contains(superclass) && numbering.contains(subclass)) {
+            return numbering.isSubclass(superclass, subclass);
+        }
+        // classes out of the hierarchy, e.g., not loaded by any loader
+        return getAllSubclassesOf(superclass).contains(subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        HierarchyNumbering numbering = getNumbering();
+        if (numbering.contains(jclass)) {
+            return numbering.getAllSubclassesOf(jclass);
+        }
+        Set<JClass> subclasses = newSet();
+        Queue<JClass> queue = new ArrayDeque<>();
+        queue.add(jclass);
+        while (!queue.isEmpty()) {
+            JClass c = queue.poll();
+            if (subclasses.add(c)) {
+                queue.addAll(getDirectSubclassesOf(c));
+                queue.addAll(getDirectImplementorsOf(c));
+                queue.addAll(getDirectSubinterfacesOf(c));
+            }
+        }
+        return subclasses;
+    }
+
+    @Override
+    public @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        Map<Subsignature, Optional<JMethod>> table = dispatchTable
+                .computeIfAbsent(jclass, c -> newConcurrentMap());
+        Optional<JMethod> target = table.get(subsignature);
+        if (target == null) {
+            JMethod method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                // reuses (and fills) the table of superclass
+                JClass superClass = jclass.getSuperClass();
+                method = superClass != null ?
+                        dispatch(superClass, subsignature) : null;
+            }
+            target = Optional.ofNullable(method);
+            table.put(subsignature, target);
+        }
+        return target.orElse(null);
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -0,0 +1,290 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Numbering of a snapshot of class hierarchy for constant-time subtype
+ * queries.
+ * <p>
+ * Classes (not interfaces) form a forest by superclass, which is numbered
+ * in preorder by a single depth-first search from the roots (i.e.,
+ * the classes without superclass) over direct subclasses, so that the
+ * subclasses of a class, including itself, are exactly the classes
+ * numbered in the interval of the class. Interfaces, and the classes
+ * not reached by the search (e.g., whose superclasses are not loaded),
+ * are numbered after them. The subtypes of each of these are represented
+ * by a bit set over the numbers, which is computed on demand. Subtype
+ * queries on unreached classes fall back to walking their superclasses.
+ */
+class HierarchyNumbering {
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<JClass, Integer> numbers = Maps.newMap();
+
+    /**
+     * Classes and interfaces by their numbers.
+     */
+    private final List<JClass> types = new ArrayList<>();
+
+    /**
+     * Number of classes reached from the roots, i.e., the classes
+     * that have intervals.
+     */
+    private final int nReached;
+
+    /**
+     * For each reached class, the largest number in its interval.
+     */
+    private final int[] last;
+
+    /**
+     * For each type that is not a reached class
+     * (indexed by number - nReached), its subtypes.
+     */
+    private final AtomicReferenceArray<BitSet> subtypes;
+
+    HierarchyNumbering(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<JClass> classes = hierarchy.allClasses().toList();
+        List<Integer> lasts = new ArrayList<>();
+        for (JClass c : classes) {
+            if (!c.isInterface() && c.getSuperClass() == null) {
+                numberTree(c, lasts);
+            }
+        }
+        nReached = types.size();
+        last = lasts.stream().mapToInt(Integer::intValue).toArray();
+        for (JClass c : classes) {
+            if (!numbers.containsKey(c)) {
+                number(c);
+            }
+        }
+        subtypes = new AtomicReferenceArray<>(types.size() - nReached);
+    }
+
+    private int number(JClass c) {
+        int n = types.size();
+        numbers.put(c, n);
+        types.add(c);
+        return n;
+    }
+
+    /**
+     * Numbers the class tree rooted at given class in preorder.
+     */
+    private void numberTree(JClass root, List<Integer> lasts) {
+        // stack of (class, iterator of its direct subclasses)
+        List<JClass> stack = new ArrayList<>();
+        List<Iterator<JClass>> iters = new ArrayList<>();
+        number(root);
+        lasts.add(null);
+        stack.add(root);
+        iters.add(hierarchy.getDirectSubclassesOf(root).iterator());
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            Iterator<JClass> it = iters.get(top);
+            if (it.hasNext()) {
+                JClass sub = it.next();
+                if (!numbers.containsKey(sub)) {
+                    number(sub);
+                    lasts.add(null);
+                    stack.add(sub);
+                    iters.add(hierarchy.getDirectSubclassesOf(sub).iterator());
+                }
+            } else {
+                lasts.set(numbers.get(stack.get(top)), types.size() - 1);
+                stack.remove(top);
+                iters.remove(top);
+            }
+        }
+    }
+
+    /**
+     * @return true if given class is numbered in this snapshot.
+     */
+    boolean contains(JClass c) {
+        return numbers.containsKey(c);
+    }
+
+    /**
+     * @return true if subclass is a subtype of superclass (or the same).
+     * Both classes must be numbered in this snapshot.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass == subclass) {
+            return true;
+        }
+        if (superclass.getSuperClass() == null &&
+                superclass.getName().equals("java.lang.Object")) {
+            // all classes and interfaces are subtypes of java.lang.Object
+            return true;
+        }
+        int sup = numbers.get(superclass), sub = numbers.get(subclass);
+        if (subclass.isInterface()) {
+            return superclass.isInterface() && getSubtypes(sup).get(sub);
+        } else if (sub >= nReached) {
+            return isSuperTypeOf(superclass, subclass);
+        } else if (sup >= nReached) {
+            return getSubtypes(sup).get(sub);
+        } else {
+            return sup <= sub && sub <= last[sup];
+        }
+    }
+
+    /**
+     * Walks the superclasses and interfaces of given subclass.
+     * This is used for the classes that have no intervals.
+     */
+    private static boolean isSuperTypeOf(JClass superclass, JClass subclass) {
+        Set<JClass> visited = Sets.newSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(subclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (c == superclass) {
+                return true;
+            }
+            if (visited.add(c)) {
+                if (c.getSuperClass() != null) {
+                    workList.add(c.getSuperClass());
+                }
+                workList.addAll(c.getInterfaces());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return all subtypes of given class, including itself.
+     * Given class must be numbered in this snapshot.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass c) {
+        int n = numbers.get(c);
+        if (n < nReached) {
+            int from = n, size = last[n] - n + 1;
+            return new AbstractList<>() {
+                @Override
+                public JClass get(int index) {
+                    if (index < 0 || index >= size) {
+                        throw new IndexOutOfBoundsException(index);
+                    }
+                    return types.get(from + index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        } else {
+            BitSet subtypes = getSubtypes(n);
+            return new AbstractCollection<>() {
+                @Override
+                public Iterator<JClass> iterator() {
+                    return new Iterator<>() {
+                        private int next = subtypes.nextSetBit(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public JClass next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            JClass result = types.get(next);
+                            next = subtypes.nextSetBit(next + 1);
+                            return result;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return subtypes.cardinality();
+                }
+            };
+        }
+    }
+
+    /**
+     * @return the subtypes of given interface or unreached class.
+     */
+    private BitSet getSubtypes(int n) {
+        BitSet result = subtypes.get(n - nReached);
+        if (result == null) {
+            result = new BitSet(types.size());
+            result.set(n);
+            JClass jclass = types.get(n);
+            if (jclass.isInterface()) {
+                for (JClass impl : hierarchy.getDirectImplementorsOf(jclass)) {
+                    addSubtypes(result, impl);
+                }
+                for (JClass subiface : hierarchy.getDirectSubinterfacesOf(jclass)) {
+                    addSubtypes(result, subiface);
+                }
+            } else {
+                for (JClass sub : hierarchy.getDirectSubclassesOf(jclass)) {
+                    addSubtypes(result, sub);
+                }
+            }
+            // the computation is deterministic, so racing threads
+            // agree on the result, and the first one is kept
+            if (!subtypes.compareAndSet(n - nReached, null, result)) {
+                result = subtypes.get(n - nReached);
+            }
+        }
+        return result;
+    }
+
+    private void addSubtypes(BitSet result, JClass jclass) {
+        Integer n = numbers.get(jclass);
+        if (n == null || result.get(n)) {
+            return;
+        }
+        if (n < nReached) {
+            result.set(n, last[n] + 1);
+        } else {
+            result.or(getSubtypes(n));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.VoidType;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Static utility methods for tests which build IRs by hand,
+ * without loading any program.
+ */
+public final class TestIRs {
+
+    private TestIRs() {
+    }
+
+    /**
+     * @return a new void method without declaring class.
+     */
+    public static JMethod makeMethod(String name, List<Type> paramTypes) {
+        return new JMethod(null, name, Set.of(), paramTypes,
+                VoidType.VOID, List.of(), null, List.of(), null);
+    }
+
+    /**
+     * Sets up a new World whose IR builder builds IRs by given function.
+     * Tests calling this should reset the World after each test.
+     */
+    public static void setUpWorld(Function<JMethod, IR> irBuilder) {
+        World world = new World();
+        world.setIRBuilder(new IRBuilder() {
+            @Override
+            public IR buildIR(JMethod method) {
+                return irBuilder.apply(method);
+            }
+
+            @Override
+            public void buildAll(ClassHierarchy hierarchy) {
+            }
+        });
+        World.set(world);
+    }
+}
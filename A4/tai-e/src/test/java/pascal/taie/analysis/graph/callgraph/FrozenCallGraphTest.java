@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.TestIRs;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link FrozenCallGraph} answers every query in the same
+ * way as the {@link DefaultCallGraph} it is frozen from.
+ */
+public class FrozenCallGraphTest {
+
+    private static final CallKind[] KINDS = {
+            CallKind.STATIC, CallKind.SPECIAL, CallKind.VIRTUAL, CallKind.INTERFACE,
+    };
+
+    private final List<JMethod> methods = new ArrayList<>();
+
+    private final List<Invoke> callSites = new ArrayList<>();
+
+    private final Map<JMethod, IR> irs = Maps.newMap();
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    public void testEmpty() {
+        makeMethods(new Random(0), 1);
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(methods.get(0));
+        callGraph.addReachableMethod(methods.get(0));
+        assertSameQueries(callGraph, callGraph.freeze());
+    }
+
+    /**
+     * The random graphs contain call sites without callees, call sites
+     * with several callees, edges added more than once, and callees
+     * that are not added as reachable methods.
+     */
+    @Test
+    public void testRandomGraphs() {
+        for (int seed = 0; seed < 50; ++seed) {
+            Random random = new Random(seed);
+            DefaultCallGraph callGraph = buildRandomGraph(random);
+            assertSameQueries(callGraph, callGraph.freeze());
+        }
+    }
+
+    /**
+     * Call sites without index, or sharing an index with another call
+     * site in the same method, cannot be found by their indexes.
+     */
+    @Test
+    public void testCallSitesWithoutIndexes() {
+        for (int seed = 0; seed < 50; ++seed) {
+            Random random = new Random(seed);
+            DefaultCallGraph callGraph = buildRandomGraph(random);
+            for (Invoke callSite : callSites) {
+                switch (random.nextInt(3)) {
+                    case 0 -> callSite.setIndex(-1);
+                    case 1 -> callSite.setIndex(0);
+                }
+            }
+            assertSameQueries(callGraph, callGraph.freeze());
+        }
+    }
+
+    private DefaultCallGraph buildRandomGraph(Random random) {
+        methods.clear();
+        callSites.clear();
+        irs.clear();
+        makeMethods(random, 2 + random.nextInt(30));
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(methods.get(0));
+        for (JMethod method : methods) {
+            if (method == methods.get(0) || random.nextInt(4) != 0) {
+                callGraph.addReachableMethod(method);
+            }
+        }
+        callGraph.reachableMethods().toList().forEach(method -> {
+            for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+                CallKind kind = KINDS[random.nextInt(KINDS.length)];
+                int nCallees = random.nextInt(4);
+                for (int i = 0; i < nCallees; ++i) {
+                    callGraph.addEdge(new Edge<>(kind, callSite,
+                            methods.get(random.nextInt(methods.size()))));
+                }
+            }
+        });
+        return callGraph;
+    }
+
+    /**
+     * Creates n methods, each containing up to three call sites.
+     */
+    private void makeMethods(Random random, int n) {
+        for (int i = 0; i < n; ++i) {
+            JMethod method = TestIRs.makeMethod("m" + i, List.of());
+            List<Stmt> stmts = new ArrayList<>();
+            int nCallSites = random.nextInt(4);
+            for (int j = 0; j < nCallSites; ++j) {
+                Invoke callSite = new Invoke(method, new InvokeStatic(
+                        MethodRef.get(null, "m", List.of(), VoidType.VOID, true),
+                        List.of()));
+                callSite.setIndex(j);
+                stmts.add(callSite);
+                callSites.add(callSite);
+            }
+            methods.add(method);
+            irs.put(method, new DefaultIR(method, null, List.of(), Set.of(),
+                    List.of(), stmts, List.of()));
+        }
+        TestIRs.setUpWorld(irs::get);
+    }
+
+    private void assertSameQueries(CallGraph<Invoke, JMethod> expected,
+                                   FrozenCallGraph actual) {
+        assertEquals(expected.getNumberOfEdges(), actual.getNumberOfEdges());
+        assertEquals(expected.getNumberOfMethods(), actual.getNumberOfMethods());
+        assertEquals(toSet(expected.entryMethods()), toSet(actual.entryMethods()));
+        assertEquals(toSet(expected.reachableMethods()), toSet(actual.reachableMethods()));
+        assertEquals(toSet(expected.edges()), toSet(actual.edges()));
+        assertSameElements("nodes", expected.getNodes(), actual.getNodes());
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        actual.forEachEdge((kind, callSite, callee) ->
+                edges.add(new Edge<>(kind, callSite, callee)));
+        assertEquals(expected.getNumberOfEdges(), edges.size());
+        assertEquals(toSet(expected.edges()), Set.copyOf(edges));
+        for (JMethod method : methods) {
+            String m = method.getName();
+            assertEquals(m, expected.contains(method), actual.contains(method));
+            assertEquals(m, expected.hasNode(method), actual.hasNode(method));
+            assertSameElements(m, expected.getCallersOf(method), actual.getCallersOf(method));
+            assertSameElements(m, expected.getCalleesOfM(method), actual.getCalleesOfM(method));
+            assertSameElements(m, expected.getPredsOf(method), actual.getPredsOf(method));
+            assertSameElements(m, expected.getSuccsOf(method), actual.getSuccsOf(method));
+            assertSameElements(m, expected.getInEdgesOf(method), actual.getInEdgesOf(method));
+            assertSameElements(m, expected.getOutEdgesOf(method), actual.getOutEdgesOf(method));
+            assertEquals(m, toSet(expected.edgesInTo(method)), toSet(actual.edgesInTo(method)));
+            if (expected.contains(method)) {
+                assertSameElements(m, expected.getCallSitesIn(method),
+                        actual.getCallSitesIn(method));
+            }
+            for (JMethod target : methods) {
+                assertEquals(m, expected.hasEdge(method, target),
+                        actual.hasEdge(method, target));
+            }
+        }
+        for (Invoke callSite : callSites) {
+            if (expected.contains(callSite.getContainer())) {
+                String cs = callSite.getContainer().getName() + "/" + callSite.getIndex();
+                assertEquals(cs, expected.getContainerOf(callSite), actual.getContainerOf(callSite));
+                assertSameElements(cs, expected.getCalleesOf(callSite), actual.getCalleesOf(callSite));
+                assertSameElements(cs, expected.getResult(callSite), actual.getResult(callSite));
+                assertEquals(cs, toSet(expected.edgesOutOf(callSite)),
+                        toSet(actual.edgesOutOf(callSite)));
+            }
+        }
+    }
+
+    /**
+     * Compares two collections as multisets, as the set views given by
+     * {@link DefaultCallGraph} do not override {@link Object#equals}.
+     */
+    private static void assertSameElements(String message,
+                                           Collection<?> expected,
+                                           Collection<?> actual) {
+        assertEquals(message, count(expected), count(actual));
+    }
+
+    private static <T> Map<T, Long> count(Collection<T> c) {
+        return c.stream().collect(Collectors.groupingBy(
+                Function.identity(), Collectors.counting()));
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+}
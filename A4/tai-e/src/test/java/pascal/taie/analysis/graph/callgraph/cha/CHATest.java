@@ -27,7 +27,7 @@ import pascal.taie.analysis.Tests;
 
 public class CHATest {
     
-    protected static void test(String main) {
+    protected void test(String main) {
         Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
     }
 
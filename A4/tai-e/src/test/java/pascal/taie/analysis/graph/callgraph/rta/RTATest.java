@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph.rta;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RTATest {
+
+    private static void test(String main) {
+        Tests.test(main, "src/test/resources/rta/", "cg", "algorithm:rta");
+    }
+
+    /**
+     * @return signatures of the callees of all call edges.
+     */
+    private static Set<String> getCallees() {
+        CallGraph<Invoke, JMethod> callGraph =
+                World.get().getResult(CallGraphBuilder.ID);
+        return callGraph.edges()
+                .map(edge -> edge.getCallee().getSignature())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+        // C and D are subclasses of B, but are never instantiated
+        Set<String> callees = getCallees();
+        assertTrue(callees.contains("<A: void foo()>"));
+        assertFalse(callees.contains("<C: void foo()>"));
+        assertFalse(callees.contains("<D: void foo()>"));
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+        // only One is instantiated
+        Set<String> callees = getCallees();
+        assertTrue(callees.contains("<One: int get()>"));
+        assertFalse(callees.contains("<Zero: int get()>"));
+        assertFalse(callees.contains("<Two: int get()>"));
+    }
+
+    @Test
+    public void testStringLiteral() {
+        Main.main(new String[]{ "-pp", "-cp", "src/test/resources/rta/",
+                "-m", "StringLiteral", "-a", "cg=algorithm:rta" });
+        // no class is instantiated by new, but the literals
+        // are instances of String and Class
+        Set<String> callees = getCallees();
+        assertTrue(callees.contains("<java.lang.String: int hashCode()>"));
+        assertTrue(callees.contains("<java.lang.Class: java.lang.String toString()>"));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.language.classes;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the subtype queries of {@link ClassHierarchyImpl}, which are
+ * answered by {@link HierarchyNumbering}, against a plain walk over
+ * superclasses and interfaces.
+ */
+public class ClassHierarchyTest {
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    public void testIsSubclass() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/cha", "-m", "Interface");
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass object = hierarchy.getJREClass("java.lang.Object");
+        List<JClass> classes = hierarchy.allClasses().toList();
+        for (JClass subclass : classes) {
+            Set<JClass> supertypes = getSupertypes(subclass);
+            supertypes.add(object);
+            for (JClass superclass : classes) {
+                assertEquals(superclass + " :> " + subclass,
+                        supertypes.contains(superclass),
+                        hierarchy.isSubclass(superclass, subclass));
+            }
+        }
+    }
+
+    /**
+     * @return given class, and all its superclasses and superinterfaces.
+     */
+    private static Set<JClass> getSupertypes(JClass jclass) {
+        Set<JClass> supertypes = Sets.newSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    workList.add(c.getSuperClass());
+                }
+                workList.addAll(c.getInterfaces());
+            }
+        }
+        return supertypes;
+    }
+}
@@ -0,0 +1,9 @@
+public class StringLiteral {
+
+    public static void main(String[] args) {
+        Object s = "hello";
+        s.hashCode();
+        Object c = StringLiteral.class;
+        c.toString();
+    }
+}
@@ -45,6 +45,12 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Number of edges in this call graph. The edges are stored in
+     * the call sites and callees, thus they are counted here.
+     */
+    private int numberOfEdges = 0;
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -82,6 +88,35 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            ++numberOfEdges;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Removes a reachable method from this call graph.
+     * The call edges to and from the method are not removed.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean removeReachableMethod(CSMethod csMethod) {
+        return reachableMethods.remove(csMethod);
+    }
+
+    /**
+     * Removes a call graph edge from this call graph.
+     *
+     * @param edge the call edge to be removed
+     * @return true if the call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean removeEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (edge.getCallSite().removeEdge(edge)) {
+            edge.getCallee().removeEdge(edge);
+            --numberOfEdges;
             return true;
         } else {
             return false;
@@ -134,6 +169,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 .flatMap(this::edgesOutOf);
     }
 
+    @Override
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
     @Override
     public boolean isRelevant(Stmt stmt) {
         throw new UnsupportedOperationException();
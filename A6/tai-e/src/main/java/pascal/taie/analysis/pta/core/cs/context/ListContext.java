@@ -22,80 +22,203 @@
 
 package pascal.taie.analysis.pta.core.cs.context;
 
+import pascal.taie.World;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * List-based contexts. Each context is represented by a list of context elements.
+ * <p>
+ * Contexts are interned in a trie: each context is the child of the context
+ * obtained by removing its last element, and the empty context is the root.
+ * Hence, equal contexts made in the same World are always the same object,
+ * and each context has a unique index which can be used to index
+ * context-sensitive elements. The trie is thread-safe, and is replaced
+ * by a new one when the World is reset.
  *
  * @param <T> type of context elements
  */
-public class ListContext<T> implements Context {
+public class ListContext<T> implements Context, Indexable {
 
     /**
-     * The empty context.
+     * The context trie of the current World.
      */
-    private static final ListContext<?> EMPTY_CONTEXT = new ListContext<>(List.of());
+    private static volatile Trie trie = new Trie();
+
+    static {
+        World.registerResetCallback(() -> trie = new Trie());
+    }
+
+    /**
+     * The trie containing this context.
+     */
+    private final Trie owner;
 
     /**
-     * List of elements in the context.
+     * Elements of this context.
      */
-    private final List<T> elements;
+    private final Object[] elements;
+
+    private final int hashCode;
 
-    private ListContext(List<T> elements) {
+    private final int index;
+
+    /**
+     * Children of this context in the trie, i.e., the contexts
+     * obtained by appending an element to this context.
+     */
+    private volatile ConcurrentMap<T, ListContext<T>> children;
+
+    /**
+     * Caches the results of {@link #append(Context, Object, int)}
+     * which need to truncate this context, keyed by the limit.
+     */
+    private volatile ConcurrentMap<Integer, ConcurrentMap<T, ListContext<T>>> truncatedAppends;
+
+    private ListContext(Trie owner, Object[] elements, int hashCode) {
+        this.owner = owner;
         this.elements = elements;
+        this.hashCode = hashCode;
+        this.index = owner.counter.getAndIncrement();
     }
 
     /**
      * @return an empty context.
      */
     public static Context make() {
-        return EMPTY_CONTEXT;
+        return trie.root;
     }
 
     /**
      * @return a context that consists of given context elements.
      */
     @SafeVarargs
+    @SuppressWarnings("unchecked")
     public static <T> Context make(T... elements) {
-        return elements.length == 0 ?
-                EMPTY_CONTEXT : new ListContext<>(List.of(elements));
+        ListContext<T> context = (ListContext<T>) trie.root;
+        for (T element : elements) {
+            context = context.getChild(element);
+        }
+        return context;
+    }
+
+    /**
+     * Appends an element to the given context, and keeps (at most)
+     * the last {@code limit} elements of the result, as is done
+     * by k-limiting context selectors. The results are cached in
+     * the context trie, thus repeated calls are cheap.
+     *
+     * @return the context consisting of the last {@code limit} elements
+     * of {@code context} followed by {@code element}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Context append(Context context, T element, int limit) {
+        ListContext<T> ctx = (ListContext<T>) context;
+        if (limit <= 0) {
+            return ctx.owner.root;
+        }
+        if (ctx.elements.length < limit) {
+            return ctx.getChild(element);
+        }
+        ConcurrentMap<Integer, ConcurrentMap<T, ListContext<T>>> appends =
+                ctx.truncatedAppends;
+        if (appends == null) {
+            synchronized (ctx) {
+                appends = ctx.truncatedAppends;
+                if (appends == null) {
+                    ctx.truncatedAppends = appends = Maps.newConcurrentMap();
+                }
+            }
+        }
+        return appends.computeIfAbsent(limit, l -> Maps.newConcurrentMap())
+                .computeIfAbsent(element, e ->
+                        ((ListContext<T>) truncate(ctx, limit - 1)).getChild(e));
+    }
+
+    /**
+     * @return the context consisting of the last {@code limit} elements
+     * of the given context.
+     */
+    @SuppressWarnings("unchecked")
+    public static Context truncate(Context context, int limit) {
+        ListContext<Object> ctx = (ListContext<Object>) context;
+        int length = ctx.elements.length;
+        if (length <= limit) {
+            return ctx;
+        }
+        ListContext<Object> result = (ListContext<Object>) ctx.owner.root;
+        for (int i = length - limit; i < length; ++i) {
+            result = result.getChild(ctx.elements[i]);
+        }
+        return result;
+    }
+
+    private ListContext<T> getChild(T element) {
+        ConcurrentMap<T, ListContext<T>> map = children;
+        if (map == null) {
+            synchronized (this) {
+                map = children;
+                if (map == null) {
+                    children = map = Maps.newConcurrentMap();
+                }
+            }
+        }
+        return map.computeIfAbsent(element, e -> {
+            Object[] childElements = Arrays.copyOf(elements, elements.length + 1);
+            childElements[elements.length] = e;
+            // consistent with List.hashCode()
+            return new ListContext<>(owner, childElements, 31 * hashCode + e.hashCode());
+        });
     }
 
     @Override
     public int getLength() {
-        return elements.size();
+        return elements.length;
     }
 
     @Override
     public Object getElementAt(int i) {
-        if (i >= elements.size()) {
+        if (i < 0 || i >= elements.length) {
             throw new AnalysisException(
                     "Context " + this + " doesn't have " + i + "-th element");
         }
-        return elements.get(i);
+        return elements[i];
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
     }
 
     @Override
     public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        ListContext<?> that = (ListContext<?>) o;
-        return elements.equals(that.elements);
+        // contexts are interned, see make(T...)
+        return this == o;
     }
 
     @Override
     public int hashCode() {
-        return elements.hashCode();
+        return hashCode;
     }
 
     @Override
     public String toString() {
-        return elements.toString();
+        return Arrays.toString(elements);
+    }
+
+    /**
+     * Context trie of a World, which numbers its contexts.
+     */
+    private static class Trie {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private final ListContext<Object> root =
+                new ListContext<>(this, new Object[0], 1);
     }
 }
@@ -43,19 +43,18 @@ public class _2CallSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        return null;
+        return ListContext.append(callSite.getContext(),
+                callSite.getCallSite(), 2);
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return null;
+        return ListContext.append(callSite.getContext(),
+                callSite.getCallSite(), 2);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        return null;
+        return ListContext.truncate(method.getContext(), 1);
     }
 }
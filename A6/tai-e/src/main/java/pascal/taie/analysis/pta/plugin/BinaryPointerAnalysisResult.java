@@ -0,0 +1,716 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Pointer analysis result stored in the binary format written by
+ * {@link BinaryResultWriter}. Each section of the file is memory-mapped
+ * separately, and each context-insensitive query only decodes
+ * the records it needs.
+ * <p>
+ * The file starts with {@link #MAGIC}, {@link #VERSION} and the
+ * (offset, length) of each section as 64-bit values. All other integers
+ * are big-endian 32-bit values, except the ID arrays, which are sorted,
+ * delta-encoded and written as varints. Offsets of records are relative
+ * to their sections, so each section is limited to 2 GB, but the file is
+ * not.
+ * <ul>
+ *     <li>strings: count, (count + 1) offsets, UTF-8 bytes;</li>
+ *     <li>objects: count, number of objects in the result, then
+ *     (description, type) string IDs of each context-insensitive object,
+ *     followed by the objects that are only referenced by CS objects
+ *     and contexts;</li>
+ *     <li>variables: count, record offsets, records of (key, object IDs)
+ *     sorted by key, where the key of a variable is
+ *     "method signature/variable name";</li>
+ *     <li>instance fields: same as variables, with records of
+ *     (base object ID, field signature, object IDs);</li>
+ *     <li>static fields: same as variables, with records of
+ *     (field signature, object IDs);</li>
+ *     <li>methods: count, (signature, is-entry) of each reachable method;</li>
+ *     <li>call sites: count, record offsets, records of (container
+ *     signature, statement index, number of edges (varint), then
+ *     (call kind, callee signature) of each call edge);</li>
+ *     <li>contexts: count, then the length (varint) and elements of each
+ *     context, where each element is a kind byte followed by
+ *     (container signature, statement index) of a call site,
+ *     an object ID, or a type name;</li>
+ *     <li>CS objects: count, (context ID, object ID) of each CS object;</li>
+ *     <li>CS methods: count, (context ID, signature, is-entry) of each
+ *     reachable CS method;</li>
+ *     <li>CS call edges: count, (call-site context ID, container signature,
+ *     statement index, call kind, callee context ID, callee signature)
+ *     of each edge;</li>
+ *     <li>CS pointers: count, then a kind byte, the key of the pointer,
+ *     i.e., (context ID, variable key), (field signature),
+ *     (base CS object ID, field signature) or (array CS object ID),
+ *     and the CS object IDs of each pointer.</li>
+ * </ul>
+ * The context-sensitive sections are restored into CS elements
+ * on the first context-sensitive query. The string forms of the CS
+ * pointers and their points-to sets, which are used to compare
+ * the context-sensitive results, are derived from the restored elements.
+ */
+public class BinaryPointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    static final int MAGIC = 0x54414950; // "TAIP"
+
+    static final int VERSION = 3;
+
+    static final int STRINGS = 0, OBJECTS = 1, VARS = 2, INSTANCE_FIELDS = 3,
+            STATIC_FIELDS = 4, METHODS = 5, CALL_SITES = 6, CONTEXTS = 7,
+            CS_OBJECTS = 8, CS_METHODS = 9, CS_CALL_EDGES = 10, CS_POINTERS = 11;
+
+    static final int SECTION_COUNT = 12;
+
+    /**
+     * Size of the header, i.e., magic, version and the section table.
+     */
+    static final int HEADER_SIZE = 8 + 16 * SECTION_COUNT;
+
+    /**
+     * Kinds of context elements.
+     */
+    static final byte CALL_SITE_ELEMENT = 0, OBJ_ELEMENT = 1, TYPE_ELEMENT = 2;
+
+    /**
+     * Kinds of CS pointers.
+     */
+    static final byte VAR_POINTER = 0, STATIC_FIELD_POINTER = 1,
+            INSTANCE_FIELD_POINTER = 2, ARRAY_INDEX_POINTER = 3;
+
+    private final ByteBuffer[] sections;
+
+    private final String[] strings;
+
+    private final StoredObj[] objs;
+
+    /**
+     * Number of objects in the result, which precede the objects
+     * only referenced by CS objects and contexts.
+     */
+    private final int resultObjCount;
+
+    private final Map<Var, Set<Obj>> varPointsToSets = Maps.newMap();
+
+    private final Map<JField, Set<Obj>> staticFieldPointsToSets = Maps.newMap();
+
+    private Collection<Var> vars;
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    /**
+     * Context-sensitive result restored from the CS sections.
+     */
+    private PointerAnalysisResult csResult;
+
+    /**
+     * Strings of the CS objects pointed to by each CS pointer, keyed
+     * by the strings of the pointers.
+     */
+    private Map<String, List<String>> pointerStrings;
+
+    private BinaryPointerAnalysisResult(ByteBuffer[] sections) {
+        this.sections = sections;
+        strings = new String[sections[STRINGS].getInt(0)];
+        objs = new StoredObj[sections[OBJECTS].getInt(0)];
+        resultObjCount = sections[OBJECTS].getInt(4);
+    }
+
+    /**
+     * Memory-maps and loads the result stored in given file.
+     */
+    public static BinaryPointerAnalysisResult load(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.limit() >= 8 && (header.getInt(0) != MAGIC
+                    || header.getInt(4) != VERSION)) {
+                throw new AnalysisException(path + " is not a pointer" +
+                        " analysis result file of version " + VERSION);
+            }
+            if (header.limit() < HEADER_SIZE) {
+                throw new AnalysisException("Truncated header of " + path +
+                        ": expected " + HEADER_SIZE + " bytes, but the file has " +
+                        size + " bytes");
+            }
+            ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+            for (int i = 0; i < SECTION_COUNT; ++i) {
+                long offset = header.getLong(8 + 16 * i);
+                long length = header.getLong(16 + 16 * i);
+                // each section starts with a count
+                if (offset < HEADER_SIZE || length < 4
+                        || length > Integer.MAX_VALUE
+                        || offset + length > size) {
+                    throw new AnalysisException("Truncated or corrupted " +
+                            path + ": section " + i + " has offset " + offset +
+                            " and length " + length + ", but the file has " +
+                            size + " bytes");
+                }
+                sections[i] = channel.map(
+                        FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+            return new BinaryPointerAnalysisResult(sections);
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to load pointer analysis result from " + path, e);
+        }
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        if (vars == null) {
+            ByteBuffer section = sections[VARS];
+            List<Var> result = new ArrayList<>();
+            int count = getCount(VARS);
+            for (int i = 0; i < count; ++i) {
+                Var var = resolveVar(getString(section.getInt(getRecord(VARS, i))));
+                if (var != null) {
+                    result.add(var);
+                }
+            }
+            vars = Collections.unmodifiableList(result);
+        }
+        return vars;
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        List<Obj> result = new ArrayList<>(resultObjCount);
+        for (int i = 0; i < resultObjCount; ++i) {
+            result.add(getObj(i));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return varPointsToSets.computeIfAbsent(var, v -> {
+            ByteBuffer section = sections[VARS];
+            String key = getKey(v);
+            int record = findRecord(VARS, r -> key.compareTo(getString(section.getInt(r))));
+            return record < 0 ? Set.of() : readObjs(section, record + 4);
+        });
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        ByteBuffer section = sections[INSTANCE_FIELDS];
+        String signature = field.getSignature();
+        Set<Obj> result = Sets.newHybridSet();
+        for (Obj obj : getPointsToSet(base)) {
+            int id = ((StoredObj) obj).id;
+            int record = findRecord(INSTANCE_FIELDS, r -> {
+                int cmp = Integer.compare(id, section.getInt(r));
+                return cmp != 0 ? cmp :
+                        signature.compareTo(getString(section.getInt(r + 4)));
+            });
+            if (record >= 0) {
+                result.addAll(readObjs(section, record + 8));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        return staticFieldPointsToSets.computeIfAbsent(field, f -> {
+            ByteBuffer section = sections[STATIC_FIELDS];
+            String signature = f.getSignature();
+            int record = findRecord(STATIC_FIELDS,
+                    r -> signature.compareTo(getString(section.getInt(r))));
+            return record < 0 ? Set.of() : readObjs(section, record + 4);
+        });
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            callGraph = readCallGraph();
+        }
+        return callGraph;
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return getCSResult().getCSVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return getCSResult().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return getCSResult().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return getCSResult().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return getCSResult().getCSObjects();
+    }
+
+    @Override
+    public Set<CSObj> getPointsToSet(CSVar var) {
+        return getCSResult().getPointsToSet(var);
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return getCSResult().getCSCallGraph();
+    }
+
+    /**
+     * @return the strings of the CS objects pointed to by the pointer
+     * whose string is given, or null if the pointer is absent.
+     */
+    List<String> getPointsToSet(String pointer) {
+        return getPointerStrings().get(pointer);
+    }
+
+    /**
+     * @return the strings of all CS pointers, in sorted order.
+     */
+    List<String> getPointers() {
+        return List.copyOf(getPointerStrings().keySet());
+    }
+
+    private Map<String, List<String>> getPointerStrings() {
+        if (pointerStrings == null) {
+            PointerAnalysisResult result = getCSResult();
+            Map<String, List<String>> map = new TreeMap<>();
+            addPointerStrings(map, result.getCSVars());
+            addPointerStrings(map, result.getStaticFields());
+            addPointerStrings(map, result.getInstanceFields());
+            addPointerStrings(map, result.getArrayIndexes());
+            pointerStrings = Collections.unmodifiableMap(map);
+        }
+        return pointerStrings;
+    }
+
+    private static void addPointerStrings(
+            Map<String, List<String>> map, Collection<? extends Pointer> pointers) {
+        pointers.forEach(p -> map.put(p.toString(), p.getPointsToSet()
+                .objects()
+                .map(CSObj::toString)
+                .toList()));
+    }
+
+    static String getKey(Var var) {
+        return var.getMethod().getSignature() + "/" + var.getName();
+    }
+
+    private CallGraph<Invoke, JMethod> readCallGraph() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        DefaultCallGraph cg = new DefaultCallGraph();
+        ByteBuffer methods = sections[METHODS];
+        int count = methods.getInt(0);
+        for (int i = 0, pos = 4; i < count; ++i, pos += 5) {
+            JMethod method = resolveMethod(hierarchy, methods.getInt(pos));
+            if (methods.get(pos + 4) != 0) {
+                cg.addEntryMethod(method);
+            } else {
+                cg.addReachableMethod(method);
+            }
+        }
+        CallKind[] kinds = CallKind.values();
+        ByteBuffer callSites = sections[CALL_SITES];
+        count = getCount(CALL_SITES);
+        for (int i = 0; i < count; ++i) {
+            int record = getRecord(CALL_SITES, i);
+            Invoke callSite = resolveCallSite(hierarchy,
+                    callSites.getInt(record), callSites.getInt(record + 4));
+            int[] cursor = { record + 8 };
+            int edges = readVarInt(callSites, cursor);
+            for (int j = 0; j < edges; ++j, cursor[0] += 5) {
+                cg.addEdge(new Edge<>(kinds[callSites.get(cursor[0])], callSite,
+                        resolveMethod(hierarchy, callSites.getInt(cursor[0] + 1))));
+            }
+        }
+        return cg;
+    }
+
+    private PointerAnalysisResult getCSResult() {
+        if (csResult == null) {
+            csResult = readCSResult();
+        }
+        return csResult;
+    }
+
+    /**
+     * Restores the CS elements, their points-to sets and the CS call graph.
+     */
+    private PointerAnalysisResult readCSResult() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        // restored CS objects are not indexed by the indexer of the solver,
+        // if any, thus the points-to sets cannot be bit-vector sets
+        CSManager csManager = new MapBasedCSManager(PointsToSetFactory::makeHybrid);
+        Context[] contexts = readContexts(hierarchy);
+        ByteBuffer section = sections[CS_OBJECTS];
+        CSObj[] csObjs = new CSObj[section.getInt(0)];
+        for (int i = 0, pos = 4; i < csObjs.length; ++i, pos += 8) {
+            csObjs[i] = csManager.getCSObj(contexts[section.getInt(pos)],
+                    getObj(section.getInt(pos + 4)));
+        }
+        CSCallGraph cg = new CSCallGraph(csManager);
+        section = sections[CS_METHODS];
+        int count = section.getInt(0);
+        for (int i = 0, pos = 4; i < count; ++i, pos += 9) {
+            CSMethod csMethod = csManager.getCSMethod(
+                    contexts[section.getInt(pos)],
+                    resolveMethod(hierarchy, section.getInt(pos + 4)));
+            if (section.get(pos + 8) != 0) {
+                cg.addEntryMethod(csMethod);
+            }
+            cg.addReachableMethod(csMethod);
+        }
+        CallKind[] kinds = CallKind.values();
+        section = sections[CS_CALL_EDGES];
+        count = section.getInt(0);
+        for (int i = 0, pos = 4; i < count; ++i, pos += 21) {
+            CSCallSite csCallSite = csManager.getCSCallSite(
+                    contexts[section.getInt(pos)],
+                    resolveCallSite(hierarchy, section.getInt(pos + 4),
+                            section.getInt(pos + 8)));
+            CSMethod csCallee = csManager.getCSMethod(
+                    contexts[section.getInt(pos + 13)],
+                    resolveMethod(hierarchy, section.getInt(pos + 17)));
+            cg.addEdge(new Edge<>(kinds[section.get(pos + 12)],
+                    csCallSite, csCallee));
+        }
+        section = sections[CS_POINTERS];
+        count = section.getInt(0);
+        int[] cursor = { 4 };
+        for (int i = 0; i < count; ++i) {
+            byte kind = section.get(cursor[0]);
+            int key = section.getInt(cursor[0] + 1);
+            cursor[0] += 5;
+            Pointer pointer = switch (kind) {
+                case VAR_POINTER -> {
+                    Var var = resolveVar(getString(section.getInt(cursor[0])));
+                    cursor[0] += 4;
+                    yield var == null ? null :
+                            csManager.getCSVar(contexts[key], var);
+                }
+                case STATIC_FIELD_POINTER ->
+                        csManager.getStaticField(resolveField(hierarchy, key));
+                case INSTANCE_FIELD_POINTER -> {
+                    JField field = resolveField(hierarchy,
+                            section.getInt(cursor[0]));
+                    cursor[0] += 4;
+                    yield csManager.getInstanceField(csObjs[key], field);
+                }
+                case ARRAY_INDEX_POINTER -> csManager.getArrayIndex(csObjs[key]);
+                default -> throw new AnalysisException(
+                        "Unknown kind of CS pointer: " + kind);
+            };
+            int[] ids = readIds(section, cursor);
+            if (pointer != null) {
+                for (int id : ids) {
+                    pointer.getPointsToSet().addObject(csObjs[id]);
+                }
+            }
+        }
+        return new PointerAnalysisResultImpl(csManager, cg);
+    }
+
+    private Context[] readContexts(ClassHierarchy hierarchy) {
+        ByteBuffer section = sections[CONTEXTS];
+        Context[] contexts = new Context[section.getInt(0)];
+        int[] cursor = { 4 };
+        for (int i = 0; i < contexts.length; ++i) {
+            Object[] elems = new Object[readVarInt(section, cursor)];
+            for (int j = 0; j < elems.length; ++j) {
+                byte kind = section.get(cursor[0]);
+                int ref = section.getInt(cursor[0] + 1);
+                cursor[0] += 5;
+                elems[j] = switch (kind) {
+                    case CALL_SITE_ELEMENT -> {
+                        Invoke callSite = resolveCallSite(hierarchy, ref,
+                                section.getInt(cursor[0]));
+                        cursor[0] += 4;
+                        yield callSite;
+                    }
+                    case OBJ_ELEMENT -> getObj(ref);
+                    case TYPE_ELEMENT ->
+                            World.get().getTypeSystem().getType(getString(ref));
+                    default -> throw new AnalysisException(
+                            "Unknown kind of context element: " + kind);
+                };
+            }
+            contexts[i] = ListContext.make(elems);
+        }
+        return contexts;
+    }
+
+    private JMethod resolveMethod(ClassHierarchy hierarchy, int signature) {
+        String sig = getString(signature);
+        return Objects.requireNonNull(hierarchy.getMethod(sig),
+                () -> "Method " + sig + " does not exist in current world");
+    }
+
+    private JField resolveField(ClassHierarchy hierarchy, int signature) {
+        String sig = getString(signature);
+        return Objects.requireNonNull(hierarchy.getField(sig),
+                () -> "Field " + sig + " does not exist in current world");
+    }
+
+    private Invoke resolveCallSite(ClassHierarchy hierarchy,
+                                   int container, int index) {
+        return (Invoke) resolveMethod(hierarchy, container)
+                .getIR().getStmt(index);
+    }
+
+    /**
+     * @return the variable of given key, or null if it cannot be found
+     * in current world.
+     */
+    private static Var resolveVar(String key) {
+        int slash = key.lastIndexOf('/');
+        JMethod method = World.get().getClassHierarchy()
+                .getMethod(key.substring(0, slash));
+        if (method == null) {
+            return null;
+        }
+        String name = key.substring(slash + 1);
+        return method.getIR().getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private int getCount(int section) {
+        return sections[section].getInt(0);
+    }
+
+    /**
+     * @return the offset of the i-th record of given section.
+     */
+    private int getRecord(int section, int i) {
+        return sections[section].getInt(4 + 4 * i);
+    }
+
+    /**
+     * Binary-searches the records of a section, which are sorted
+     * in the order given by comparator.
+     *
+     * @return the offset of the found record, or -1 if it is absent.
+     */
+    private int findRecord(int section, RecordComparator comparator) {
+        int low = 0, high = getCount(section) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = getRecord(section, mid);
+            int cmp = comparator.compareTo(record);
+            if (cmp == 0) {
+                return record;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return -1;
+    }
+
+    private interface RecordComparator {
+        /**
+         * Compares the searched key to the key of given record.
+         */
+        int compareTo(int record);
+    }
+
+    private String getString(int id) {
+        String s = strings[id];
+        if (s == null) {
+            ByteBuffer section = sections[STRINGS];
+            int dataStart = 4 + 4 * (strings.length + 1);
+            int start = section.getInt(4 + 4 * id);
+            int end = section.getInt(4 + 4 * (id + 1));
+            byte[] bytes = new byte[end - start];
+            section.get(dataStart + start, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    private Obj getObj(int id) {
+        StoredObj obj = objs[id];
+        if (obj == null) {
+            ByteBuffer section = sections[OBJECTS];
+            int pos = 8 + 8 * id;
+            obj = new StoredObj(id, getString(section.getInt(pos)),
+                    getString(section.getInt(pos + 4)));
+            objs[id] = obj;
+        }
+        return obj;
+    }
+
+    private Set<Obj> readObjs(ByteBuffer section, int pos) {
+        int[] ids = readIds(section, new int[]{ pos });
+        Set<Obj> result = Sets.newHybridSet();
+        for (int id : ids) {
+            result.add(getObj(id));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Reads an ID array, i.e., the number of IDs followed by the deltas
+     * of the sorted IDs, all written as varints, and advances the cursor
+     * past the array.
+     */
+    private static int[] readIds(ByteBuffer section, int[] cursor) {
+        int[] ids = new int[readVarInt(section, cursor)];
+        int id = 0;
+        for (int i = 0; i < ids.length; ++i) {
+            id += readVarInt(section, cursor);
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private static int readVarInt(ByteBuffer section, int[] cursor) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = section.get(cursor[0]++);
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Context-insensitive objects restored from binary results.
+     * They are identified by their IDs in the file.
+     */
+    private static class StoredObj implements Obj {
+
+        private final int id;
+
+        private final String desc;
+
+        private final String typeName;
+
+        private Type type;
+
+        private StoredObj(int id, String desc, String typeName) {
+            this.id = id;
+            this.desc = desc;
+            this.typeName = typeName;
+        }
+
+        @Override
+        public Type getType() {
+            if (type == null) {
+                type = World.get().getTypeSystem().getType(typeName);
+            }
+            return type;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return desc;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return getType();
+        }
+
+        @Override
+        public String toString() {
+            return desc;
+        }
+    }
+}
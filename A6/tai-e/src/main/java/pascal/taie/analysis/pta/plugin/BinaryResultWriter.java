@@ -0,0 +1,562 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static pascal.taie.analysis.pta.plugin.BinaryPointerAnalysisResult.*;
+
+/**
+ * Writes pointer analysis results in the binary format described in
+ * {@link BinaryPointerAnalysisResult}. The sections are streamed to
+ * the file, and the offsets that are known only after a section is
+ * written, i.e., the section table in the header and the record offsets
+ * of each section, are back-patched.
+ */
+class BinaryResultWriter {
+
+    private final PointerAnalysisResult result;
+
+    private final Map<String, Integer> stringIds = Maps.newMap();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    private final Map<Context, Integer> contextIds = new LinkedHashMap<>();
+
+    private final Map<CSObj, Integer> csObjIds = Maps.newMap();
+
+    private final long[] offsets = new long[SECTION_COUNT];
+
+    private final long[] lengths = new long[SECTION_COUNT];
+
+    private Output out;
+
+    private BinaryResultWriter(PointerAnalysisResult result) {
+        this.result = result;
+    }
+
+    static void write(PointerAnalysisResult result, Path path) {
+        new BinaryResultWriter(result).write(path);
+    }
+
+    private void write(Path path) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out = new Output(channel);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            // section table, back-patched after all sections are written
+            out.skip(HEADER_SIZE - 8);
+            // objects and contexts must be numbered before they are referenced
+            collectContexts();
+            writeSection(OBJECTS, this::writeObjects);
+            writeSection(VARS, this::writeVars);
+            writeSection(INSTANCE_FIELDS, this::writeInstanceFields);
+            writeSection(STATIC_FIELDS, this::writeStaticFields);
+            writeSection(METHODS, this::writeMethods);
+            writeSection(CALL_SITES, this::writeCallSites);
+            writeSection(CONTEXTS, this::writeContexts);
+            writeSection(CS_OBJECTS, this::writeCSObjects);
+            writeSection(CS_METHODS, this::writeCSMethods);
+            writeSection(CS_CALL_EDGES, this::writeCSCallEdges);
+            writeSection(CS_POINTERS, this::writeCSPointers);
+            // strings are complete after all other sections are written
+            writeSection(STRINGS, this::writeStrings);
+            ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE - 8);
+            for (int i = 0; i < SECTION_COUNT; ++i) {
+                table.putLong(offsets[i]).putLong(lengths[i]);
+            }
+            out.patch(8, table.flip());
+        } catch (IOException | UncheckedIOException e) {
+            throw new AnalysisException(
+                    "Failed to write pointer analysis result to " + path, e);
+        }
+    }
+
+    private void writeSection(int section, Runnable writer) {
+        offsets[section] = out.position();
+        writer.run();
+        lengths[section] = out.position() - offsets[section];
+        if (lengths[section] > Integer.MAX_VALUE) {
+            throw new AnalysisException("Section " + section +
+                    " exceeds the limit of 2 GB");
+        }
+    }
+
+    /**
+     * Numbers the contexts of all context-sensitive elements, and
+     * collects the CS objects.
+     */
+    private void collectContexts() {
+        result.getCSObjects().forEach(csObj -> {
+            csObjIds.put(csObj, csObjIds.size());
+            addContext(csObj.getContext());
+        });
+        result.getCSVars().forEach(csVar -> addContext(csVar.getContext()));
+        CallGraph<CSCallSite, CSMethod> cg = result.getCSCallGraph();
+        cg.reachableMethods().forEach(m -> addContext(m.getContext()));
+        cg.edges().forEach(e -> addContext(e.getCallSite().getContext()));
+    }
+
+    private void addContext(Context context) {
+        contextIds.putIfAbsent(context, contextIds.size());
+    }
+
+    private void writeObjects() {
+        Set<Obj> resultObjs = Sets.newSet();
+        resultObjs.addAll(result.getObjects());
+        // objects which are only referenced by CS objects and contexts
+        Set<Obj> extraObjs = Sets.newSet();
+        csObjIds.keySet().forEach(csObj -> extraObjs.add(csObj.getObject()));
+        contextIds.keySet().forEach(context -> {
+            for (int i = 0; i < context.getLength(); ++i) {
+                if (context.getElementAt(i) instanceof Obj obj) {
+                    extraObjs.add(obj);
+                }
+            }
+        });
+        extraObjs.removeAll(resultObjs);
+        out.writeInt(resultObjs.size() + extraObjs.size());
+        out.writeInt(resultObjs.size());
+        writeObjects(resultObjs);
+        writeObjects(extraObjs);
+    }
+
+    private void writeObjects(Collection<Obj> objs) {
+        objs.stream()
+                .sorted(Comparator.comparing(Obj::toString))
+                .forEach(obj -> {
+                    objIds.put(obj, objIds.size());
+                    out.writeInt(getStringId(obj.toString()));
+                    out.writeInt(getStringId(obj.getType().getName()));
+                });
+    }
+
+    private void writeVars() {
+        Map<String, Var> vars = new TreeMap<>();
+        result.getVars().forEach(v -> vars.put(getKey(v), v));
+        RecordSection section = new RecordSection(vars.size());
+        vars.forEach((key, var) -> {
+            section.startRecord();
+            out.writeInt(getStringId(key));
+            writeIds(getObjIds(result.getPointsToSet(var)));
+        });
+        section.finish();
+    }
+
+    private void writeInstanceFields() {
+        // merge the CS instance fields into context-insensitive ones
+        Map<Pair<Integer, String>, List<Integer>> fields = new TreeMap<>(
+                Comparator.comparing((Pair<Integer, String> p) -> p.first())
+                        .thenComparing(Pair::second));
+        for (InstanceField field : result.getInstanceFields()) {
+            int base = objIds.get(field.getBase().getObject());
+            fields.computeIfAbsent(
+                    new Pair<>(base, field.getField().getSignature()),
+                    k -> new ArrayList<>())
+                    .addAll(getObjIds(getObjects(field)));
+        }
+        RecordSection section = new RecordSection(fields.size());
+        fields.forEach((field, objs) -> {
+            section.startRecord();
+            out.writeInt(field.first());
+            out.writeInt(getStringId(field.second()));
+            writeIds(objs);
+        });
+        section.finish();
+    }
+
+    private void writeStaticFields() {
+        Map<String, List<Integer>> fields = new TreeMap<>();
+        result.getStaticFields().forEach(field ->
+                fields.computeIfAbsent(field.getField().getSignature(),
+                                k -> new ArrayList<>())
+                        .addAll(getObjIds(getObjects(field))));
+        RecordSection section = new RecordSection(fields.size());
+        fields.forEach((field, objs) -> {
+            section.startRecord();
+            out.writeInt(getStringId(field));
+            writeIds(objs);
+        });
+        section.finish();
+    }
+
+    private void writeMethods() {
+        CallGraph<Invoke, JMethod> cg = result.getCallGraph();
+        Set<JMethod> entries = cg.entryMethods().collect(Collectors.toSet());
+        out.writeInt(cg.getNumberOfMethods());
+        // entry methods first, so that they are added before the others
+        cg.reachableMethods()
+                .sorted(Comparator.comparing(m -> !entries.contains(m)))
+                .forEach(m -> {
+                    out.writeInt(getStringId(m.getSignature()));
+                    out.writeByte(entries.contains(m) ? 1 : 0);
+                });
+    }
+
+    private void writeCallSites() {
+        CallGraph<Invoke, JMethod> cg = result.getCallGraph();
+        List<Invoke> callSites = cg.edges()
+                .map(Edge::getCallSite)
+                .distinct()
+                .toList();
+        RecordSection section = new RecordSection(callSites.size());
+        for (Invoke callSite : callSites) {
+            List<Edge<Invoke, JMethod>> edges = cg.edgesOutOf(callSite).toList();
+            section.startRecord();
+            out.writeInt(getStringId(callSite.getContainer().getSignature()));
+            out.writeInt(callSite.getIndex());
+            out.writeVarInt(edges.size());
+            for (Edge<Invoke, JMethod> edge : edges) {
+                out.writeByte(edge.getKind().ordinal());
+                out.writeInt(getStringId(edge.getCallee().getSignature()));
+            }
+        }
+        section.finish();
+    }
+
+    private void writeContexts() {
+        out.writeInt(contextIds.size());
+        contextIds.keySet().forEach(context -> {
+            out.writeVarInt(context.getLength());
+            for (int i = 0; i < context.getLength(); ++i) {
+                Object elem = context.getElementAt(i);
+                if (elem instanceof Invoke callSite) {
+                    out.writeByte(CALL_SITE_ELEMENT);
+                    out.writeInt(getStringId(callSite.getContainer().getSignature()));
+                    out.writeInt(callSite.getIndex());
+                } else if (elem instanceof Obj obj) {
+                    out.writeByte(OBJ_ELEMENT);
+                    out.writeInt(objIds.get(obj));
+                } else if (elem instanceof Type type) {
+                    out.writeByte(TYPE_ELEMENT);
+                    out.writeInt(getStringId(type.getName()));
+                } else {
+                    throw new AnalysisException(
+                            "Cannot write context element: " + elem);
+                }
+            }
+        });
+    }
+
+    private void writeCSObjects() {
+        out.writeInt(csObjIds.size());
+        // CS objects are numbered in the iteration order of the keys
+        csObjIds.entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(e -> {
+                    out.writeInt(contextIds.get(e.getKey().getContext()));
+                    out.writeInt(objIds.get(e.getKey().getObject()));
+                });
+    }
+
+    private void writeCSMethods() {
+        CallGraph<CSCallSite, CSMethod> cg = result.getCSCallGraph();
+        Set<CSMethod> entries = cg.entryMethods().collect(Collectors.toSet());
+        out.writeInt(cg.getNumberOfMethods());
+        cg.reachableMethods()
+                .sorted(Comparator.comparing(m -> !entries.contains(m)))
+                .forEach(m -> {
+                    out.writeInt(contextIds.get(m.getContext()));
+                    out.writeInt(getStringId(m.getMethod().getSignature()));
+                    out.writeByte(entries.contains(m) ? 1 : 0);
+                });
+    }
+
+    private void writeCSCallEdges() {
+        CallGraph<CSCallSite, CSMethod> cg = result.getCSCallGraph();
+        out.writeInt(cg.getNumberOfEdges());
+        cg.edges().forEach(edge -> {
+            Invoke callSite = edge.getCallSite().getCallSite();
+            out.writeInt(contextIds.get(edge.getCallSite().getContext()));
+            out.writeInt(getStringId(callSite.getContainer().getSignature()));
+            out.writeInt(callSite.getIndex());
+            out.writeByte(edge.getKind().ordinal());
+            out.writeInt(contextIds.get(edge.getCallee().getContext()));
+            out.writeInt(getStringId(edge.getCallee().getMethod().getSignature()));
+        });
+    }
+
+    private void writeCSPointers() {
+        Collection<CSVar> csVars = result.getCSVars();
+        Collection<StaticField> staticFields = result.getStaticFields();
+        Collection<InstanceField> instanceFields = result.getInstanceFields();
+        Collection<ArrayIndex> arrayIndexes = result.getArrayIndexes();
+        out.writeInt(csVars.size() + staticFields.size() +
+                instanceFields.size() + arrayIndexes.size());
+        csVars.forEach(csVar -> {
+            out.writeByte(VAR_POINTER);
+            out.writeInt(contextIds.get(csVar.getContext()));
+            out.writeInt(getStringId(getKey(csVar.getVar())));
+            writeCSObjIds(csVar);
+        });
+        staticFields.forEach(field -> {
+            out.writeByte(STATIC_FIELD_POINTER);
+            out.writeInt(getStringId(field.getField().getSignature()));
+            writeCSObjIds(field);
+        });
+        instanceFields.forEach(field -> {
+            out.writeByte(INSTANCE_FIELD_POINTER);
+            out.writeInt(csObjIds.get(field.getBase()));
+            out.writeInt(getStringId(field.getField().getSignature()));
+            writeCSObjIds(field);
+        });
+        arrayIndexes.forEach(array -> {
+            out.writeByte(ARRAY_INDEX_POINTER);
+            out.writeInt(csObjIds.get(array.getArray()));
+            writeCSObjIds(array);
+        });
+    }
+
+    private void writeCSObjIds(Pointer pointer) {
+        writeIds(pointer.getPointsToSet()
+                .objects()
+                .map(csObjIds::get)
+                .toList());
+    }
+
+    private void writeStrings() {
+        out.writeInt(strings.size());
+        List<byte[]> bytes = strings.stream()
+                .map(s -> s.getBytes(StandardCharsets.UTF_8))
+                .toList();
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] b : bytes) {
+            offset += b.length;
+            out.writeInt(offset);
+        }
+        bytes.forEach(out::write);
+    }
+
+    private int getStringId(String s) {
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    private static Collection<Obj> getObjects(Pointer pointer) {
+        return pointer.getPointsToSet()
+                .objects()
+                .map(CSObj::getObject)
+                .toList();
+    }
+
+    private List<Integer> getObjIds(Collection<Obj> objs) {
+        return objs.stream().map(objIds::get).toList();
+    }
+
+    /**
+     * Writes the given IDs sorted and delta-encoded as varints.
+     * Duplicate IDs are removed.
+     */
+    private void writeIds(Collection<Integer> ids) {
+        int[] sorted = ids.stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .distinct()
+                .toArray();
+        out.writeVarInt(sorted.length);
+        int prev = 0;
+        for (int id : sorted) {
+            out.writeVarInt(id - prev);
+            prev = id;
+        }
+    }
+
+    /**
+     * A section of variable-length records, which starts with the number
+     * of records and the offsets of the records. As the offsets are
+     * relative to the section, they are known only after the records
+     * are written, and are back-patched by {@link #finish()}.
+     */
+    private class RecordSection {
+
+        private final long start;
+
+        private final int[] records;
+
+        private int count = 0;
+
+        private RecordSection(int size) {
+            start = out.position();
+            records = new int[size];
+            out.writeInt(size);
+            out.skip(4L * size);
+        }
+
+        void startRecord() {
+            records[count++] = (int) (out.position() - start);
+        }
+
+        void finish() {
+            ByteBuffer table = ByteBuffer.allocate(4 * count);
+            for (int i = 0; i < count; ++i) {
+                table.putInt(records[i]);
+            }
+            out.patch(start + 4, table.flip());
+        }
+    }
+
+    /**
+     * Big-endian buffered output to a file channel, which also supports
+     * varints and back-patching of the written bytes.
+     */
+    private static class Output {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * Position of the first byte in the buffer.
+         */
+        private long flushed = 0;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void writeInt(int v) {
+            ensureRemaining(4);
+            buffer.putInt(v);
+        }
+
+        void writeByte(int v) {
+            ensureRemaining(1);
+            buffer.put((byte) v);
+        }
+
+        void writeVarInt(int v) {
+            ensureRemaining(5);
+            while ((v & ~0x7f) != 0) {
+                buffer.put((byte) ((v & 0x7f) | 0x80));
+                v >>>= 7;
+            }
+            buffer.put((byte) v);
+        }
+
+        void write(byte[] b) {
+            for (int i = 0; i < b.length; ) {
+                ensureRemaining(1);
+                int n = Math.min(buffer.remaining(), b.length - i);
+                buffer.put(b, i, n);
+                i += n;
+            }
+        }
+
+        /**
+         * Writes n zero bytes, which are overwritten later by
+         * {@link #patch(long, ByteBuffer)}.
+         */
+        void skip(long n) {
+            for (long i = 0; i < n; ) {
+                ensureRemaining(1);
+                int k = (int) Math.min(buffer.remaining(), n - i);
+                buffer.put(new byte[k]);
+                i += k;
+            }
+        }
+
+        /**
+         * Overwrites the bytes starting at given position, which must
+         * have been written.
+         */
+        void patch(long position, ByteBuffer data) {
+            flush();
+            try {
+                while (data.hasRemaining()) {
+                    channel.write(data, position + data.position());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void ensureRemaining(int n) {
+            if (buffer.remaining() < n) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    flushed += channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects precision-critical methods, i.e., the methods where
+ * context-insensitive analysis is likely to lose precision,
+ * from the result of a context-insensitive pre-analysis.
+ * <p>
+ * Following the idea of Zipper, a method is precision-critical if the
+ * objects passed to it (via parameters) flow out of it (via return
+ * values or the fields of its containers), or the objects stored in its
+ * containers flow out of it. Such flows are detected by these patterns:
+ * <ul>
+ *     <li>direct flow: objects of parameters are returned;</li>
+ *     <li>wrapping: objects of parameters are stored to fields or arrays;</li>
+ *     <li>unwrapping: objects loaded from the fields or arrays of
+ *     this object or parameters are returned;</li>
+ *     <li>container transfer: calls on the objects loaded from fields
+ *     of this object or parameters, which receive objects of parameters,
+ *     or whose results are returned.</li>
+ * </ul>
+ * Here the containers of a method are this object and the parameters.
+ */
+public class Zipper {
+
+    private static final Logger logger = LogManager.getLogger(Zipper.class);
+
+    private final PointerAnalysisResult pta;
+
+    /**
+     * @param pta result of context-insensitive pre-analysis.
+     */
+    public Zipper(PointerAnalysisResult pta) {
+        this.pta = pta;
+    }
+
+    /**
+     * @return the precision-critical methods.
+     */
+    public Set<JMethod> selectPrecisionCriticalMethods() {
+        Set<JMethod> methods = pta.getCallGraph()
+                .reachableMethods()
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .filter(this::isPrecisionCritical)
+                .collect(Collectors.toSet());
+        logger.info("{} of {} reachable methods are precision-critical",
+                methods.size(), pta.getCallGraph().getNumberOfMethods());
+        return methods;
+    }
+
+    private boolean isPrecisionCritical(JMethod method) {
+        IR ir = method.getIR();
+        Set<Obj> in = pointsToSetOf(ir.getParams());
+        Set<Obj> out = pointsToSetOf(ir.getReturnVars());
+        if (in.isEmpty() && out.isEmpty()) {
+            return false;
+        }
+        // direct flow
+        if (intersects(in, out)) {
+            return true;
+        }
+        Set<Obj> containers = Sets.newHybridSet(in);
+        if (ir.getThis() != null) {
+            containers.addAll(pta.getPointsToSet(ir.getThis()));
+        }
+        // objects loaded from containers
+        Set<Obj> contents = Sets.newHybridSet();
+        for (Var var : ir.getVars()) {
+            for (StoreField store : var.getStoreFields()) {
+                // wrapping
+                if (intersects(in, pta.getPointsToSet(store.getRValue()))) {
+                    return true;
+                }
+            }
+            for (StoreArray store : var.getStoreArrays()) {
+                // wrapping
+                if (intersects(in, pta.getPointsToSet(store.getRValue()))) {
+                    return true;
+                }
+            }
+            if (intersects(containers, pta.getPointsToSet(var))) {
+                for (LoadField load : var.getLoadFields()) {
+                    Set<Obj> loaded = pta.getPointsToSet(load.getLValue());
+                    // unwrapping
+                    if (intersects(out, loaded)) {
+                        return true;
+                    }
+                    contents.addAll(loaded);
+                }
+                for (LoadArray load : var.getLoadArrays()) {
+                    // unwrapping
+                    if (intersects(out, pta.getPointsToSet(load.getLValue()))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        if (contents.isEmpty()) {
+            return false;
+        }
+        for (Var var : ir.getVars()) {
+            if (intersects(contents, pta.getPointsToSet(var))) {
+                for (Invoke invoke : var.getInvokes()) {
+                    // container transfer
+                    Var result = invoke.getResult();
+                    if (result != null &&
+                            intersects(out, pta.getPointsToSet(result))) {
+                        return true;
+                    }
+                    if (intersects(in, pointsToSetOf(
+                            invoke.getInvokeExp().getArgs()))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private Set<Obj> pointsToSetOf(Collection<Var> vars) {
+        Set<Obj> pts = Sets.newHybridSet();
+        vars.forEach(v -> pts.addAll(pta.getPointsToSet(v)));
+        return pts;
+    }
+
+    private static boolean intersects(Set<Obj> s1, Set<Obj> s2) {
+        if (s1.size() > s2.size()) {
+            Set<Obj> tmp = s1;
+            s1 = s2;
+            s2 = tmp;
+        }
+        for (Obj o : s1) {
+            if (s2.contains(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -79,6 +79,16 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj");
     }
 
+    @Test
+    public void testTwoObjectBitPts() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;pts:bit");
+    }
+
+    @Test
+    public void testTwoObjectArrayCSManager() {
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;cs-manager:array");
+    }
+
     @Test
     public void testTwoType() {
         Tests.testCSPTA(DIR, "TwoType", "cs:2-type");
@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ListContextTest {
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    public void testInterning() {
+        Context ab = ListContext.make("a", "b");
+        assertSame(ab, ListContext.make("a", "b"));
+        assertSame(ListContext.make(), ListContext.make(new String[0]));
+        assertEquals(2, ab.getLength());
+        assertEquals("a", ab.getElementAt(0));
+        assertEquals("b", ab.getElementAt(1));
+        assertEquals(List.of("a", "b").hashCode(), ab.hashCode());
+        assertEquals("[a, b]", ab.toString());
+        assertSame(ListContext.make("b", "c"), ListContext.append(ab, "c", 2));
+        assertSame(ListContext.make("a", "b", "c"), ListContext.append(ab, "c", 3));
+        assertSame(ListContext.make(), ListContext.append(ab, "c", 0));
+        assertSame(ListContext.make("b"), ListContext.truncate(ab, 1));
+        assertSame(ab, ListContext.truncate(ab, 2));
+    }
+
+    /**
+     * Contexts made by several threads at the same time are still
+     * interned, and have distinct indexes.
+     */
+    @Test
+    public void testConcurrentMake() throws Exception {
+        int nThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<List<Context>>> futures = new ArrayList<>();
+        for (int t = 0; t < nThreads; ++t) {
+            futures.add(executor.submit(() -> makeContexts(new Random(0))));
+        }
+        List<Context> expected = futures.get(0).get();
+        for (Future<List<Context>> future : futures) {
+            List<Context> contexts = future.get();
+            for (int i = 0; i < expected.size(); ++i) {
+                assertSame(expected.get(i), contexts.get(i));
+            }
+        }
+        executor.shutdown();
+        Set<Context> distinct = Sets.newSet();
+        distinct.addAll(expected);
+        Set<Integer> indexes = Sets.newSet();
+        distinct.forEach(c -> indexes.add(((ListContext<?>) c).getIndex()));
+        assertEquals(distinct.size(), indexes.size());
+    }
+
+    private static List<Context> makeContexts(Random random) {
+        List<Context> contexts = new ArrayList<>();
+        Context context = ListContext.make();
+        for (int i = 0; i < 10_000; ++i) {
+            context = ListContext.append(context, random.nextInt(8), 3);
+            contexts.add(context);
+        }
+        return contexts;
+    }
+
+    @Test
+    public void testReset() {
+        Context a = ListContext.make("a");
+        World.reset();
+        Context newA = ListContext.make("a");
+        assertNotSame(a, newA);
+        assertEquals(0, ((ListContext<?>) ListContext.make()).getIndex());
+        assertEquals(1, ((ListContext<?>) newA).getIndex());
+        // contexts of the old World keep their own trie
+        assertSame(ListContext.make("a", "b"), ListContext.make("a", "b"));
+        assertNotSame(ListContext.make("a", "b"), ListContext.append(a, "b", 2));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.config.AnalysisConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Static utility methods for the tests that run {@link CSPTA} directly
+ * on the current World and compare the results of different runs.
+ */
+final class CSPTATests {
+
+    static final String CLASS_PATH = "src/test/resources/pta/cspta";
+
+    private CSPTATests() {
+    }
+
+    /**
+     * Runs context-insensitive {@link CSPTA} with the options used
+     * by the test cases and given extra options.
+     *
+     * @param keyValues extra options, in the form of key-value pairs.
+     */
+    static PointerAnalysisResult analyze(Object... keyValues) {
+        List<Object> options = new ArrayList<>(List.of(
+                "cs", "ci",
+                "only-app", true,
+                "implicit-entries", false,
+                "merge-string-constants", false,
+                "merge-string-objects", false,
+                "merge-string-builders", false,
+                "merge-exception-objects", true));
+        Collections.addAll(options, keyValues);
+        return new CSPTA(new AnalysisConfig(CSPTA.ID, options.toArray()))
+                .analyze();
+    }
+
+    /**
+     * @return non-empty points-to sets of the variables, in text form.
+     */
+    static Set<String> toString(PointerAnalysisResult result) {
+        return result.getCSVars()
+                .stream()
+                .filter(v -> !result.getPointsToSet(v).isEmpty())
+                .map(v -> v + " -> " + toString(result.getPointsToSet(v).stream()))
+                .collect(Collectors.toSet());
+    }
+
+    static Set<String> toString(Stream<?> elements) {
+        return elements.map(Object::toString).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalSolverTest {
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    /**
+     * Removes an allocation from one method, then checks that resuming
+     * the last run changes the result as analyzing from scratch does.
+     */
+    @Test
+    public void testResumeAfterChange() {
+        Main.main(new String[]{ "-pp", "-cp", CSPTATests.CLASS_PATH, "-m", "Incremental" });
+        // the points-to sets are updated in place by the resuming run,
+        // thus the result is turned into text before the change
+        Set<String> before = CSPTATests.toString(CSPTATests.analyze("incremental", true));
+        assertTrue(before.stream().anyMatch(pts -> pts.contains("new Large")));
+        JMethod make = World.get().getMainMethod()
+                .getDeclaringClass()
+                .getDeclaredMethod("make");
+        setIR(make, removeNew(make.getIR(), "Large"));
+        PointerAnalysisResult resumed = CSPTATests.analyze("incremental", true);
+        Set<String> after = CSPTATests.toString(resumed);
+        assertFalse(after.isEmpty());
+        assertNotEquals(before, after);
+        assertTrue(after.stream().noneMatch(pts -> pts.contains("new Large")));
+        assertTrue(after.stream().anyMatch(pts -> pts.contains("new Small")));
+        PointerAnalysisResult fromScratch = CSPTATests.analyze("incremental", false);
+        assertEquals(CSPTATests.toString(fromScratch), after);
+        assertEquals(CSPTATests.toString(fromScratch.getCSCallGraph().edges()),
+                CSPTATests.toString(resumed.getCSCallGraph().edges()));
+        assertEquals(CSPTATests.toString(fromScratch.getCSCallGraph().reachableMethods()),
+                CSPTATests.toString(resumed.getCSCallGraph().reachableMethods()));
+    }
+
+    /**
+     * Checks that the solver state is kept in the World only by
+     * incremental runs, and is dropped when the World is reset.
+     */
+    @Test
+    public void testStateInWorld() {
+        Main.main(new String[]{ "-pp", "-cp", CSPTATests.CLASS_PATH, "-m", "Incremental" });
+        CSPTATests.analyze("incremental", false);
+        assertNull(World.get().getResult(SolverState.class.getName()));
+        CSPTATests.analyze("incremental", true);
+        assertNotNull(World.get().getResult(SolverState.class.getName()));
+        World.reset();
+        Main.main(new String[]{ "-pp", "-cp", CSPTATests.CLASS_PATH, "-m", "Incremental" });
+        assertNull(World.get().getResult(SolverState.class.getName()));
+    }
+
+    /**
+     * @return a copy of ir without the allocations of given class.
+     */
+    private static IR removeNew(IR ir, String className) {
+        List<Stmt> stmts = ir.getStmts()
+                .stream()
+                .filter(s -> !(s instanceof New n && n.getRValue()
+                        .getType().getName().equals(className)))
+                .toList();
+        return new DefaultIR(ir.getMethod(), ir.getThis(), ir.getParams(),
+                Set.copyOf(ir.getReturnVars()), ir.getVars(), stmts,
+                ir.getExceptionEntries());
+    }
+
+    private static void setIR(JMethod method, IR ir) {
+        try {
+            Field field = JMethod.class.getDeclaredField("ir");
+            field.setAccessible(true);
+            field.set(method, ir);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
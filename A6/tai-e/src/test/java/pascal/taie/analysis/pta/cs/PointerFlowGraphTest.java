@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.language.type.Type;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PointerFlowGraphTest {
+
+    private final CSObj obj = new MapBasedCSManager()
+            .getCSObj(ListContext.make(), new MockObj("test", "o", null));
+
+    /**
+     * Target of the checked edge reaches the source only through
+     * a successor of the source.
+     */
+    @Test
+    public void testCycleThroughSuccessorOfSource() {
+        Pointer s = pointer("S", true);
+        Pointer t = pointer("T", true);
+        Pointer y = pointer("Y", false);
+        Pointer z = pointer("Z", false);
+        PointerFlowGraph pfg = new PointerFlowGraph(true, (rep, pts) -> {});
+        pfg.addEdge(s, z);
+        pfg.addEdge(s, y);
+        pfg.addEdge(y, s);
+        pfg.addEdge(t, s);
+        pfg.addEdge(s, t);
+        assertSame(s, pfg.getRepresentative(s));
+        assertSame(s, pfg.getRepresentative(t));
+        assertSame(s, pfg.getRepresentative(y));
+        assertSame(z, pfg.getRepresentative(z));
+        assertEquals(Set.of(s, t, y), pfg.getCollapsedPointers(y));
+        assertEquals(Set.of(z), pfg.getSuccsOf(t));
+        assertSame(s.getPointsToSet(), t.getPointsToSet());
+        assertSame(s.getPointsToSet(), y.getPointsToSet());
+    }
+
+    /**
+     * D reaches the checked edge only through B, which is still
+     * on the DFS stack when D is finished.
+     */
+    @Test
+    public void testMultiPathCycle() {
+        Pointer a = pointer("A", true);
+        Pointer b = pointer("B", false);
+        Pointer c = pointer("C", true);
+        Pointer d = pointer("D", false);
+        Pointer e = pointer("E", false);
+        Pointer f = pointer("F", false);
+        PointsToSet[] union = new PointsToSet[1];
+        PointerFlowGraph pfg = new PointerFlowGraph(true,
+                (rep, pts) -> union[0] = pts);
+        pfg.addEdge(a, b);
+        pfg.addEdge(b, c);
+        pfg.addEdge(b, d);
+        pfg.addEdge(d, b);
+        pfg.addEdge(a, e);
+        pfg.addEdge(e, f);
+        pfg.addEdge(c, a);
+        for (Pointer p : new Pointer[]{ a, b, c, d }) {
+            assertSame(c, pfg.getRepresentative(p));
+        }
+        assertSame(e, pfg.getRepresentative(e));
+        assertSame(f, pfg.getRepresentative(f));
+        assertEquals(Set.of(a, b, c, d), pfg.getCollapsedPointers(a));
+        assertEquals(Set.of(e), pfg.getSuccsOf(d));
+        assertEquals(Set.of(f), pfg.getSuccsOf(e));
+        assertTrue(union[0].contains(obj));
+    }
+
+    private Pointer pointer(String name, boolean pointsToObj) {
+        Pointer pointer = new TestPointer(name);
+        pointer.setPointsToSet(pointsToObj ?
+                PointsToSetFactory.make(obj) : PointsToSetFactory.make());
+        return pointer;
+    }
+
+    private static class TestPointer implements Pointer {
+
+        private final String name;
+
+        private PointsToSet pointsToSet;
+
+        private TestPointer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public PointsToSet getPointsToSet() {
+            return pointsToSet;
+        }
+
+        @Override
+        public void setPointsToSet(PointsToSet pointsToSet) {
+            this.pointsToSet = pointsToSet;
+        }
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SelectiveContextTest {
+
+    @After
+    public void tearDown() {
+        World.reset();
+    }
+
+    /**
+     * Runs Scaler without option "scaler-tst", and checks that it
+     * separates the elements of the two lists as 2-obj does.
+     */
+    @Test
+    public void testScaler() {
+        Main.main(new String[]{ "-pp", "-cp", CSPTATests.CLASS_PATH, "-m", "TwoObject" });
+        PointerAnalysisResult result = CSPTATests.analyze("cs", "scaler");
+        Set<Obj> o1 = getPointsToSet(result, "o1");
+        Set<Obj> o2 = getPointsToSet(result, "o2");
+        assertFalse(o1.isEmpty());
+        assertFalse(o2.isEmpty());
+        assertTrue(Collections.disjoint(o1, o2));
+    }
+
+    /**
+     * Runs Zipper-guided 2-obj, and checks that the precision-critical
+     * method List.add() is analyzed under receiver objects while main()
+     * stays context-insensitive.
+     */
+    @Test
+    public void testZipper() {
+        Main.main(new String[]{ "-pp", "-cp", CSPTATests.CLASS_PATH, "-m", "TwoObject" });
+        PointerAnalysisResult result = CSPTATests.analyze("cs", "zipper-2-obj");
+        List<CSMethod> adds = getCSMethods(result, "List", "add");
+        assertEquals(2, adds.size());
+        adds.forEach(m -> assertNotEquals(0, m.getContext().getLength()));
+        getCSMethods(result, "TwoObject", "main")
+                .forEach(m -> assertEquals(0, m.getContext().getLength()));
+        assertTrue(Collections.disjoint(
+                getPointsToSet(result, "o1"), getPointsToSet(result, "o2")));
+    }
+
+    private static List<CSMethod> getCSMethods(
+            PointerAnalysisResult result, String className, String methodName) {
+        return result.getCSCallGraph()
+                .reachableMethods()
+                .filter(m -> m.getMethod().getDeclaringClass().getName().equals(className)
+                        && m.getMethod().getName().equals(methodName))
+                .toList();
+    }
+
+    private static Set<Obj> getPointsToSet(PointerAnalysisResult result, String name) {
+        Var var = result.getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+        return result.getPointsToSet(var);
+    }
+}
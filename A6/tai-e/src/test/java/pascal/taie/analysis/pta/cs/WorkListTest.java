@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WorkListTest {
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    /**
+     * Points-to sets added for a pointer that is already pending
+     * are merged into its pending entry.
+     */
+    @Test
+    public void testCoalesce() {
+        Pointer p = pointer("p");
+        Pointer q = pointer("q");
+        CSObj o1 = obj("o1");
+        CSObj o2 = obj("o2");
+        CSObj o3 = obj("o3");
+        PointsToSet first = PointsToSetFactory.make(o1);
+        WorkList workList = new WorkList();
+        workList.addEntry(p, first);
+        workList.addEntry(q, PointsToSetFactory.make(o3));
+        workList.addEntry(p, PointsToSetFactory.make(o2));
+        workList.addEntry(p, PointsToSetFactory.make(o1));
+        WorkList.Entry entry = workList.pollEntry();
+        assertSame(p, entry.pointer());
+        assertEquals(Set.of(o1, o2), entry.pointsToSet().getObjects());
+        // the points-to set of the first entry may be shared, e.g.,
+        // by a PFG source, thus it must not be modified by merging
+        assertEquals(Set.of(o1), first.getObjects());
+        entry = workList.pollEntry();
+        assertSame(q, entry.pointer());
+        assertEquals(Set.of(o3), entry.pointsToSet().getObjects());
+        assertNull(workList.pollEntry());
+        assertTrue(workList.isEmpty());
+    }
+
+    /**
+     * A pointer becomes pending again after its entry is polled.
+     */
+    @Test
+    public void testAddAfterPoll() {
+        Pointer p = pointer("p");
+        CSObj o1 = obj("o1");
+        CSObj o2 = obj("o2");
+        WorkList workList = new WorkList();
+        workList.addEntry(p, PointsToSetFactory.make(o1));
+        assertEquals(Set.of(o1), workList.pollEntry().pointsToSet().getObjects());
+        workList.addEntry(p, PointsToSetFactory.make(o2));
+        WorkList.Entry entry = workList.pollEntry();
+        assertSame(p, entry.pointer());
+        assertEquals(Set.of(o2), entry.pointsToSet().getObjects());
+        assertTrue(workList.isEmpty());
+    }
+
+    private Pointer pointer(String name) {
+        Pointer pointer = csManager.getCSVar(ListContext.make(),
+                new Var(null, name, null, 0));
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        return pointer;
+    }
+
+    private CSObj obj(String name) {
+        return csManager.getCSObj(ListContext.make(),
+                new MockObj("test", name, null));
+    }
+}
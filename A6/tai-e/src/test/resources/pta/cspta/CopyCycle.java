@@ -0,0 +1,26 @@
+class CopyCycle {
+
+    public static void main(String[] args) {
+        Object x = new A();
+        Object y = new B();
+        // y -> id/o -> x -> id/o -> y forms a cycle in the PFG
+        while (args.length > 0) {
+            x = id(y);
+            y = id(x);
+        }
+        A a = new A();
+        a.f = y;
+        Object z = a.f;
+    }
+
+    static Object id(Object o) {
+        return o;
+    }
+}
+
+class A {
+    Object f;
+}
+
+class B {
+}
@@ -0,0 +1,40 @@
+class Incremental {
+
+    public static void main(String[] args) {
+        Box b1 = new Box();
+        Box b2 = new Box();
+        b1.set(make(true));
+        b2.set(make(false));
+        Object o1 = b1.get();
+        Object o2 = b2.get();
+    }
+
+    static Object make(boolean small) {
+        Object o;
+        if (small) {
+            o = new Small();
+        } else {
+            o = new Large();
+        }
+        return o;
+    }
+}
+
+class Box {
+
+    Object f;
+
+    void set(Object o) {
+        this.f = o;
+    }
+
+    Object get() {
+        return f;
+    }
+}
+
+class Small {
+}
+
+class Large {
+}
@@ -0,0 +1,255 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Work-list solver that processes the nodes in reverse postorder of
+ * the CFG (for backward analyses, reverse postorder of the reversed CFG),
+ * which is computed once per CFG. The strongly connected components,
+ * i.e., loops, are processed one by one in topological order: the nodes
+ * of a component are iterated to convergence, always picking the pending
+ * node that comes first in the order, before moving on to the next one.
+ * Thus, each node is processed after its predecessors (for backward
+ * analyses, successors) out of its loop have reached their fixed points.
+ */
+class PriorityWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Node node : cfg.getNodes()) {
+            if (cfg.isEntry(node)) {
+                result.setInFact(node, analysis.newBoundaryFact(cfg));
+                result.setOutFact(node, analysis.newBoundaryFact(cfg));
+            } else {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        for (Node node : cfg.getNodes()) {
+            if (cfg.isExit(node)) {
+                result.setInFact(node, analysis.newBoundaryFact(cfg));
+                result.setOutFact(node, analysis.newBoundaryFact(cfg));
+            } else {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Order<Node> order = new Order<>(cfg, cfg.getEntry(),
+                cfg::getSuccsOf, cfg::getPredsOf);
+        doSolve(order, node -> !cfg.isEntry(node) &&
+                transferForward(cfg, node, result));
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Order<Node> order = new Order<>(cfg, cfg.getExit(),
+                cfg::getPredsOf, cfg::getSuccsOf);
+        doSolve(order, node -> !cfg.isExit(node) &&
+                transferBackward(cfg, node, result));
+    }
+
+    /**
+     * Processes the nodes in given order until all facts are stable.
+     *
+     * @param process processes a node, and returns whether its
+     *                resulting fact changed.
+     */
+    private void doSolve(Order<Node> order, Predicate<Node> process) {
+        BitSet workList = new BitSet(order.nodes.size());
+        for (int[] scc : order.sccs) {
+            for (int i : scc) {
+                workList.set(i);
+            }
+            for (int i = workList.nextSetBit(0); i >= 0;
+                 i = workList.nextSetBit(0)) {
+                workList.clear(i);
+                Node node = order.nodes.get(i);
+                if (process.test(node)) {
+                    // the nodes out of this SCC will be processed
+                    // when their own SCCs are reached
+                    for (Node succ : order.succs.apply(node)) {
+                        int j = order.indexes.get(succ);
+                        if (order.sccOf[j] == order.sccOf[i]) {
+                            workList.set(j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean transferForward(CFG<Node> cfg, Node node,
+                                    DataflowResult<Node, Fact> result) {
+        Fact in = result.getInFact(node);
+        for (Edge<Node> edge : cfg.getInEdgesOf(node)) {
+            Fact predOut = result.getOutFact(edge.getSource());
+            analysis.meetInto(analysis.needTransferEdge(edge) ?
+                    analysis.transferEdge(edge, predOut) : predOut, in);
+        }
+        return analysis.transferNode(node, in, result.getOutFact(node));
+    }
+
+    private boolean transferBackward(CFG<Node> cfg, Node node,
+                                     DataflowResult<Node, Fact> result) {
+        Fact out = result.getOutFact(node);
+        for (Edge<Node> edge : cfg.getOutEdgesOf(node)) {
+            Fact succIn = result.getInFact(edge.getTarget());
+            analysis.meetInto(analysis.needTransferEdge(edge) ?
+                    analysis.transferEdge(edge, succIn) : succIn, out);
+        }
+        return analysis.transferNode(node, result.getInFact(node), out);
+    }
+
+    /**
+     * Reverse postorder of the nodes of a CFG and its strongly connected
+     * components in topological order, following given direction.
+     * The components are found by Kosaraju's algorithm, whose second pass
+     * visits the nodes in reverse postorder and thus finds the components
+     * in topological order.
+     */
+    private static class Order<Node> {
+
+        /**
+         * Successors of the nodes in the direction of analysis.
+         */
+        private final Function<Node, Set<Node>> succs;
+
+        /**
+         * Nodes in reverse postorder.
+         */
+        private final List<Node> nodes;
+
+        /**
+         * Map from nodes to their indexes in {@link #nodes}.
+         */
+        private final Map<Node, Integer> indexes;
+
+        /**
+         * Indexes of the nodes of each SCC, in topological order of SCCs.
+         */
+        private final List<int[]> sccs = new ArrayList<>();
+
+        /**
+         * The SCC (as an index of {@link #sccs}) of each node,
+         * indexed by node index.
+         */
+        private final int[] sccOf;
+
+        private Order(CFG<Node> cfg, Node start,
+                      Function<Node, Set<Node>> succs,
+                      Function<Node, Set<Node>> preds) {
+            this.succs = succs;
+            int n = cfg.getNumberOfNodes();
+            nodes = new ArrayList<>(n);
+            indexes = Maps.newMap(n);
+            // first pass: computes postorder
+            Set<Node> visited = Collections.newSetFromMap(Maps.newMap(n));
+            dfs(start, succs, visited, nodes::add);
+            for (Node node : cfg.getNodes()) {
+                // nodes unreachable from start, e.g., the nodes
+                // in infinite loops for backward analyses
+                dfs(node, succs, visited, nodes::add);
+            }
+            Collections.reverse(nodes);
+            for (int i = 0; i < nodes.size(); ++i) {
+                indexes.put(nodes.get(i), i);
+            }
+            // second pass: collects SCCs on the reversed direction
+            sccOf = new int[n];
+            visited.clear();
+            for (Node node : nodes) {
+                List<Node> scc = new ArrayList<>();
+                dfs(node, preds, visited, scc::add);
+                if (!scc.isEmpty()) {
+                    int[] members = new int[scc.size()];
+                    for (int i = 0; i < members.length; ++i) {
+                        members[i] = indexes.get(scc.get(i));
+                        sccOf[members[i]] = sccs.size();
+                    }
+                    sccs.add(members);
+                }
+            }
+        }
+
+        /**
+         * Iterative depth-first search from given node over the unvisited
+         * nodes, which passes the visited nodes to action in postorder.
+         */
+        private static <Node> void dfs(Node start,
+                                       Function<Node, Set<Node>> succs,
+                                       Set<Node> visited,
+                                       Consumer<Node> action) {
+            if (!visited.add(start)) {
+                return;
+            }
+            Deque<Node> stack = new ArrayDeque<>();
+            Deque<Iterator<Node>> iterators = new ArrayDeque<>();
+            stack.push(start);
+            iterators.push(succs.apply(start).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> it = iterators.peek();
+                if (it.hasNext()) {
+                    Node succ = it.next();
+                    if (visited.add(succ)) {
+                        stack.push(succ);
+                        iterators.push(succs.apply(succ).iterator());
+                    }
+                } else {
+                    iterators.pop();
+                    action.accept(stack.pop());
+                }
+            }
+        }
+    }
+}
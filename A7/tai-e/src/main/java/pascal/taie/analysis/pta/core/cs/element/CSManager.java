@@ -28,6 +28,7 @@ import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
 
 import java.util.Collection;
 
@@ -106,4 +107,18 @@ public interface CSManager {
      * @return all array index pointers.
      */
     Collection<ArrayIndex> getArrayIndexes();
+
+    /**
+     * @return the indexer of the context-sensitive objects created by
+     * this manager. The indexes are dense, i.e., they range from 0 to
+     * (the number of created CS objects - 1).
+     */
+    Indexer<CSObj> getObjectIndexer();
+
+    /**
+     * @return the indexer of the context-sensitive variables created by
+     * this manager. The indexes are dense, i.e., they range from 0 to
+     * (the number of created CS variables - 1).
+     */
+    Indexer<CSVar> getVarIndexer();
 }
@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.Indexer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the elements created by a {@link CSManager} and assigns them
+ * dense indexes in order of creation.
+ *
+ * @param <E> type of the indexed elements
+ */
+class ElementIndexer<E extends Indexable> implements Indexer<E> {
+
+    private final List<E> elements = new ArrayList<>();
+
+    /**
+     * @return the index for the next element to be created.
+     */
+    int nextIndex() {
+        return elements.size();
+    }
+
+    /**
+     * Records a newly-created element, whose index must be
+     * the result of {@link #nextIndex()}.
+     */
+    E add(E element) {
+        assert element.getIndex() == elements.size();
+        elements.add(element);
+        return element;
+    }
+
+    /**
+     * @return all recorded elements.
+     */
+    Collection<E> getElements() {
+        return Collections.unmodifiableList(elements);
+    }
+
+    @Override
+    public int getIndex(E o) {
+        return o.getIndex();
+    }
+
+    @Override
+    public E getObject(int index) {
+        return elements.get(index);
+    }
+}
@@ -22,19 +22,28 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.plugin.BinaryPointerAnalysisResult;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
+import pascal.taie.util.collection.Maps;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Map;
 
 /**
  * Context-sensitive pointer analysis.
@@ -43,6 +52,17 @@ public class CSPTA extends ProgramAnalysis {
 
     public static final String ID = "cspta";
 
+    /**
+     * Prefix of Zipper-guided context sensitivity variants,
+     * e.g., "zipper-2-obj".
+     */
+    private static final String ZIPPER_PREFIX = "zipper-";
+
+    /**
+     * Default threshold of Scaler, used if option "scaler-tst" is absent.
+     */
+    private static final long DEFAULT_SCALER_TST = 30_000_000;
+
     public CSPTA(AnalysisConfig config) {
         super(config);
     }
@@ -50,15 +70,102 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
-        solver.solve();
+        if ("load".equals(options.getString("action"))) {
+            // reuse the result stored in binary format
+            return BinaryPointerAnalysisResult.load(
+                    Path.of(options.getString("file")));
+        }
+        boolean incremental = options.getBooleanOrDefault("incremental", false);
+        SolverState state = World.get().getResult(SolverState.class.getName());
+        Solver solver;
+        if (incremental && state != null
+                && state.options().equals(options.toString())) {
+            // update the result of the last run in this World
+            solver = new Solver(options, state);
+            solver.resume(solver.getChangedMethods());
+        } else {
+            solver = new Solver(options,
+                    new AllocationSiteBasedModel(options),
+                    getContextSelector(options));
+            solver.solve();
+        }
+        if (incremental) {
+            World.get().storeResult(SolverState.class.getName(),
+                    solver.getState());
+        }
+        solver.updateSnapshot();
         PointerAnalysisResult result = solver.getResult();
         ResultProcessor.process(options, result);
         return result;
     }
 
+    private static ContextSelector getContextSelector(AnalysisOptions options) {
+        String cs = options.getString("cs");
+        if (cs.equals("scaler")) {
+            return getScalerSelector(options);
+        } else if (cs.startsWith(ZIPPER_PREFIX)) {
+            return getZipperSelector(options,
+                    cs.substring(ZIPPER_PREFIX.length()));
+        } else {
+            return getContextSelector(cs);
+        }
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis, and lets Scaler choose
+     * context sensitivity variant for each method according to the
+     * pre-analysis result and the threshold given by option "scaler-tst"
+     * (or {@link #DEFAULT_SCALER_TST} if the option is absent).
+     */
+    private static ContextSelector getScalerSelector(AnalysisOptions options) {
+        Scaler scaler = new Scaler(runPreAnalysis(options),
+                getLong(options, "scaler-tst", DEFAULT_SCALER_TST));
+        Map<String, ContextSelector> variants = Maps.newMap();
+        Map<JMethod, ContextSelector> selectors = Maps.newMap();
+        scaler.selectContext().forEach((method, cs) -> selectors.put(method,
+                variants.computeIfAbsent(cs, CSPTA::getContextSelector)));
+        return new SelectiveSelector(new CISelector(), selectors);
+    }
+
+    /**
+     * Runs a context-insensitive pre-analysis, and applies the given
+     * context sensitivity variant only to the precision-critical
+     * methods selected by Zipper.
+     */
+    private static ContextSelector getZipperSelector(
+            AnalysisOptions options, String cs) {
+        Zipper zipper = new Zipper(runPreAnalysis(options));
+        ContextSelector selector = getContextSelector(cs);
+        Map<JMethod, ContextSelector> selectors = Maps.newMap();
+        zipper.selectPrecisionCriticalMethods()
+                .forEach(method -> selectors.put(method, selector));
+        return new SelectiveSelector(new CISelector(), selectors);
+    }
+
+    /**
+     * @return the result of context-insensitive pointer analysis
+     * on the program, which is used to guide selective context sensitivity.
+     */
+    private static PointerAnalysisResult runPreAnalysis(AnalysisOptions options) {
+        Solver solver = new Solver(options,
+                new AllocationSiteBasedModel(options), new CISelector());
+        solver.solve();
+        return solver.getResult();
+    }
+
+    private static long getLong(AnalysisOptions options, String key,
+                                long defaultValue) {
+        Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            throw new ConfigException("Invalid value of option '" + key + "': " + value, e);
+        }
+    }
+
     private static ContextSelector getContextSelector(String cs) {
         if (cs.equals("ci")) {
             return new CISelector();
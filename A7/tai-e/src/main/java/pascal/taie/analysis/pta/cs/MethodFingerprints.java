@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Fingerprints of the IR of methods, which are persisted across runs
+ * of pointer analysis to find the methods changed since the last run.
+ * <p>
+ * A fingerprint only covers what flow-insensitive pointer analysis reads
+ * from the IR, i.e., the kind, definition and uses of each statement,
+ * so that e.g., changes of line numbers are not treated as changes.
+ */
+class MethodFingerprints {
+
+    /**
+     * Map from method signature to fingerprint.
+     */
+    private final Map<String, Long> fingerprints;
+
+    private MethodFingerprints(Map<String, Long> fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * @return fingerprints of given methods.
+     */
+    static MethodFingerprints of(Stream<JMethod> methods) {
+        Map<String, Long> fingerprints = Maps.newMap();
+        methods.filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> fingerprints.put(
+                        m.getSignature(), fingerprintOf(m.getIR())));
+        return new MethodFingerprints(fingerprints);
+    }
+
+    private static long fingerprintOf(IR ir) {
+        long hash = 1;
+        for (Stmt stmt : ir) {
+            hash = 31 * hash + stmt.getClass().getName().hashCode();
+            hash = 31 * hash + stmt.getDef().map(Object::toString)
+                    .orElse("").hashCode();
+            hash = 31 * hash + stmt.getUses().toString().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * @return signatures of the methods whose fingerprints differ
+     * from the ones in {@code previous}, including the methods
+     * present in only one of the two.
+     */
+    Set<String> diff(MethodFingerprints previous) {
+        Set<String> changed = Sets.newSet();
+        fingerprints.forEach((method, fp) -> {
+            if (!fp.equals(previous.fingerprints.get(method))) {
+                changed.add(method);
+            }
+        });
+        previous.fingerprints.keySet().forEach(method -> {
+            if (!fingerprints.containsKey(method)) {
+                changed.add(method);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * Writes the fingerprints to given file, one method per line.
+     */
+    void dump(Path path) {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            fingerprints.forEach((method, fp) ->
+                    out.println(Long.toHexString(fp) + "\t" + method));
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to write method fingerprints to " + path, e);
+        }
+    }
+
+    /**
+     * Reads the fingerprints written by {@link #dump(Path)}.
+     */
+    static MethodFingerprints load(Path path) {
+        Map<String, Long> fingerprints = Maps.newMap();
+        try (Stream<String> lines = Files.lines(path)) {
+            lines.forEach(line -> {
+                int tab = line.indexOf('\t');
+                fingerprints.put(line.substring(tab + 1),
+                        Long.parseUnsignedLong(line.substring(0, tab), 16));
+            });
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read method fingerprints from " + path, e);
+        }
+        return new MethodFingerprints(fingerprints);
+    }
+}
@@ -31,6 +31,7 @@ import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -45,16 +46,16 @@ import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.function.ToIntFunction;
-
-import static pascal.taie.util.collection.CollectionUtils.sum;
 
 /**
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
  * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * It is not efficient and not recommended applying on large program,
+ * unless the results are stored in binary format (option "format: binary"),
+ * see {@link BinaryPointerAnalysisResult}.
  */
 public class ResultProcessor {
 
@@ -69,6 +70,11 @@ public class ResultProcessor {
 
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Size of the buffer and the chunks for dumping points-to sets.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -77,25 +83,34 @@ public class ResultProcessor {
             return;
         }
         String file = options.getString("file");
+        boolean binary = "binary".equals(options.getString("format"));
         switch (action) {
-            case "dump" -> dumpPointsToSet(result, file);
-            case "compare" -> comparePointsToSet(result, file);
+            case "dump" -> {
+                if (binary) {
+                    dumpBinary(result, file);
+                } else {
+                    dumpPointsToSet(result, file);
+                }
+            }
+            case "compare" -> comparePointsToSet(result, file, binary);
         }
     }
 
     private static void printStatistics(PointerAnalysisResult result) {
         int varInsens = result.getVars().size();
         int varSens = result.getCSVars().size();
-        int vptSizeInsens = sum(result.getVars(), v -> result.getPointsToSet(v).size());
-        ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
-        int vptSizeSens = sum(result.getCSVars(), getSize);
-        int sfptSizeSens = sum(result.getStaticFields(), getSize);
-        int ifptSizeSens = sum(result.getInstanceFields(), getSize);
-        int aptSizeSens = sum(result.getArrayIndexes(), getSize);
+        long vptSizeInsens = result.getVars()
+                .stream()
+                .mapToLong(v -> result.getPointsToSet(v).size())
+                .sum();
+        long vptSizeSens = sumPointsToSetSizes(result.getCSVars());
+        long sfptSizeSens = sumPointsToSetSizes(result.getStaticFields());
+        long ifptSizeSens = sumPointsToSetSizes(result.getInstanceFields());
+        long aptSizeSens = sumPointsToSetSizes(result.getArrayIndexes());
         int reachableInsens = result.getCallGraph().getNumberOfMethods();
         int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        int callEdgeInsens = result.getCallGraph().getNumberOfEdges();
+        int callEdgeSens = result.getCSCallGraph().getNumberOfEdges();
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
@@ -114,7 +129,16 @@ public class ResultProcessor {
         System.out.println("----------------------------------------");
     }
 
-    private static String format(int i) {
+    /**
+     * @return the total size of the points-to sets of given pointers.
+     */
+    private static long sumPointsToSetSizes(Collection<? extends Pointer> pointers) {
+        return pointers.parallelStream()
+                .mapToLong(p -> p.getPointsToSet().size())
+                .sum();
+    }
+
+    private static String format(long i) {
         return formatter.format(i);
     }
 
@@ -123,7 +147,8 @@ public class ResultProcessor {
         if (output != null) {  // if output file is given, then dump to the file
             File outFile = new File(output);
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
+                out = new PrintStream(new BufferedOutputStream(
+                        new FileOutputStream(outFile), BUFFER_SIZE));
                 logger.info("Dumping points-to set to {} ...", outFile);
             } catch (FileNotFoundException e) {
                 throw new RuntimeException("Failed to open output file", e);
@@ -142,34 +167,82 @@ public class ResultProcessor {
 
     private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
         out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
+        StringBuilder chunk = new StringBuilder(BUFFER_SIZE);
+        for (PointerEntry entry : toSortedEntries(pointers)) {
+            chunk.append(entry.pointer())
+                    .append(SEP)
+                    .append(entry.pointsTo())
+                    .append(System.lineSeparator());
+            if (chunk.length() >= BUFFER_SIZE) {
+                out.print(chunk);
+                chunk.setLength(0);
+            }
+        }
+        out.print(chunk);
         out.println();
     }
 
-    private static void comparePointsToSet(PointerAnalysisResult result, String input) {
+    /**
+     * String forms of a pointer and its points-to set.
+     */
+    private record PointerEntry(String pointer, String pointsTo) {
+    }
+
+    /**
+     * Converts given pointers to string forms in parallel.
+     *
+     * @return the entries sorted by the string forms of the pointers.
+     */
+    private static List<PointerEntry> toSortedEntries(
+            Collection<? extends Pointer> pointers) {
+        return pointers.parallelStream()
+                .map(p -> new PointerEntry(p.toString(), toString(p.getPointsToSet())))
+                .sorted(Comparator.comparing(PointerEntry::pointer))
+                .toList();
+    }
+
+    private static void dumpBinary(PointerAnalysisResult result, String output) {
+        if (output == null) {
+            throw new AnalysisException("Binary results must be dumped to a file");
+        }
+        logger.info("Dumping points-to set to {} in binary format ...", output);
+        BinaryResultWriter.write(result, Path.of(output));
+    }
+
+    private static void comparePointsToSet(PointerAnalysisResult result,
+                                           String input, boolean binary) {
         logger.info("Comparing points-to set with {} ...", input);
-        var inputs = readPointsToSets(input);
-        Map<String, Pointer> pointers = new LinkedHashMap<>();
+        Function<String, String> expectedOf;
+        Collection<String> expectedPointers;
+        if (binary) {
+            var inputs = BinaryPointerAnalysisResult.load(Path.of(input));
+            expectedOf = pointerStr -> {
+                List<String> pts = inputs.getPointsToSet(pointerStr);
+                return pts != null ? Streams.toString(pts.stream()) : null;
+            };
+            expectedPointers = inputs.getPointers();
+        } else {
+            var inputs = readPointsToSets(input);
+            expectedOf = inputs::get;
+            expectedPointers = inputs.keySet();
+        }
+        Map<String, String> pointers = new LinkedHashMap<>();
         addPointers(pointers, result.getCSVars());
         addPointers(pointers, result.getStaticFields());
         addPointers(pointers, result.getInstanceFields());
         addPointers(pointers, result.getArrayIndexes());
         List<String> mismatches = new ArrayList<>();
-        pointers.forEach((pointerStr, pointer) -> {
-            String given = toString(pointer.getPointsToSet());
-            String expected = inputs.get(pointerStr);
+        pointers.forEach((pointerStr, given) -> {
+            String expected = expectedOf.apply(pointerStr);
             if (!given.equals(expected)) {
                 mismatches.add(String.format("%s, expected: %s, given: %s",
                         pointerStr, expected, given));
             }
         });
-        inputs.keySet()
-                .stream()
+        expectedPointers.stream()
                 .filter(Predicate.not(pointers::containsKey))
                 .forEach(pointerStr -> {
-                    String expected = inputs.get(pointerStr);
+                    String expected = expectedOf.apply(pointerStr);
                     mismatches.add(String.format("%s, expected: %s, given: null",
                             pointerStr, expected));
                 });
@@ -193,11 +266,9 @@ public class ResultProcessor {
         }
     }
 
-    private static void addPointers(Map<String, Pointer> map,
+    private static void addPointers(Map<String, String> map,
                                     Collection<? extends Pointer> pointers) {
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> map.put(p.toString(), p));
+        toSortedEntries(pointers).forEach(e -> map.put(e.pointer(), e.pointsTo()));
     }
 
     private static String toString(PointsToSet pts) {
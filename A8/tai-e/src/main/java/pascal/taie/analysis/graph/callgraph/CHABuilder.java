@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the CHA algorithm.
+ */
+public class CHABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    /**
+     * Map from each class to all its subtypes (including itself),
+     * which is shared by all call sites on the class.
+     */
+    private final Map<JClass, Collection<JClass>> subtypes = Maps.newMap();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod currentMethod = workList.poll();
+            if (callGraph.reachableMethods.contains(currentMethod)) continue;
+            callGraph.addReachableMethod(currentMethod);
+            for (Invoke callSite : callGraph.getCallSitesIn(currentMethod)) {
+                Set<JMethod> targetMethods = resolve(callSite);
+                for (JMethod targetMethod : targetMethods) {
+                    CallKind callKind = CallGraphs.getCallKind(callSite);
+                    callGraph.addEdge(new Edge<>(callKind, callSite, targetMethod));
+                    workList.add(targetMethod);
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Resolves call targets (callees) of a call site via CHA.
+     */
+    private Set<JMethod> resolve(Invoke callSite) {
+        Set<JMethod> methods = new HashSet<>();
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass jclass = methodRef.getDeclaringClass();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> methods.add(jclass.getDeclaredMethod(
+                    methodRef.getSubsignature()));
+            case SPECIAL -> methods.add(dispatch(jclass, methodRef));
+            case VIRTUAL, INTERFACE -> {
+                Collection<JClass> classes = subtypes.computeIfAbsent(jclass,
+                        c -> hierarchy.getAllSubclassesOf(c, true));
+                for (JClass subclass : classes) {
+                    methods.add(dispatch(subclass, methodRef));
+                }
+            }
+        }
+        methods.remove(null);
+        return methods;
+    }
+
+    /**
+     * Looks up the target method based on given class and method reference.
+     * The lookup is delegated to {@link ClassHierarchy#dispatch}, which
+     * memoizes the results per (class, subsignature).
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    private JMethod dispatch(JClass jclass, MethodRef methodRef) {
+        return hierarchy.dispatch(jclass, methodRef);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manages context-sensitive elements and pointers by arrays.
+ * <p>
+ * The elements are first grouped by the indexes of their contexts,
+ * thus this manager requires the contexts to be {@link Indexable}
+ * (e.g., {@link pascal.taie.analysis.pta.core.cs.context.ListContext}).
+ * Within a context, the CS variables and call sites of a method are
+ * stored in arrays indexed by {@link Var#getIndex()} and
+ * {@link Invoke#getIndex()}, and the instance fields and array indexes
+ * are stored in lists indexed by the indexes of their base objects.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    /**
+     * Tables of the elements in each context, indexed by context indexes.
+     */
+    private final List<ContextTable> contextTables = new ArrayList<>();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    /**
+     * Instance fields of each CS object, indexed by CS object indexes.
+     */
+    private final List<Map<JField, InstanceField>> instanceFields = new ArrayList<>();
+
+    private final List<InstanceField> instanceFieldList = new ArrayList<>();
+
+    /**
+     * Array index of each CS object, indexed by CS object indexes.
+     */
+    private final List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+    private final List<ArrayIndex> arrayIndexList = new ArrayList<>();
+
+    private final MultiMap<Var, CSVar> csVarsOf = Maps.newMultiMap();
+
+    private final ElementIndexer<CSVar> varIndexer = new ElementIndexer<>();
+
+    private final ElementIndexer<CSObj> objIndexer = new ElementIndexer<>();
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        MethodTable table = getMethodTable(context, var.getMethod());
+        int i = var.getIndex();
+        if (i >= table.vars.length) {
+            table.vars = grow(table.vars, i);
+        }
+        CSVar csVar = table.vars[i];
+        if (csVar == null) {
+            csVar = initializePointsToSet(varIndexer.add(
+                    new CSVar(var, context, varIndexer.nextIndex())));
+            csVarsOf.put(var, csVar);
+            table.vars[i] = csVar;
+        }
+        return csVar;
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return getContextTable(heapContext).objs.computeIfAbsent(obj, o ->
+                objIndexer.add(new CSObj(o, heapContext, objIndexer.nextIndex())));
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        MethodTable table = getMethodTable(context, callSite.getContainer());
+        int i = callSite.getIndex();
+        if (i >= table.callSites.length) {
+            table.callSites = grow(table.callSites, i);
+        }
+        CSCallSite csCallSite = table.callSites[i];
+        if (csCallSite == null) {
+            csCallSite = new CSCallSite(callSite, context);
+            table.callSites[i] = csCallSite;
+        }
+        return csCallSite;
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        MethodTable table = getMethodTable(context, method);
+        if (table.csMethod == null) {
+            table.csMethod = new CSMethod(method, context);
+        }
+        return table.csMethod;
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        Map<JField, InstanceField> fields = getOrNull(instanceFields, base.getIndex());
+        if (fields == null) {
+            fields = Maps.newSmallMap();
+            set(instanceFields, base.getIndex(), fields);
+        }
+        return fields.computeIfAbsent(field, f -> {
+            InstanceField instanceField =
+                    initializePointsToSet(new InstanceField(base, f));
+            instanceFieldList.add(instanceField);
+            return instanceField;
+        });
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        ArrayIndex arrayIndex = getOrNull(arrayIndexes, array.getIndex());
+        if (arrayIndex == null) {
+            arrayIndex = initializePointsToSet(new ArrayIndex(array));
+            set(arrayIndexes, array.getIndex(), arrayIndex);
+            arrayIndexList.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return csVarsOf.keySet();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return csVarsOf.get(var);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return varIndexer.getElements();
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objIndexer.getElements();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFieldList);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexList);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    @Override
+    public Indexer<CSVar> getVarIndexer() {
+        return varIndexer;
+    }
+
+    private ContextTable getContextTable(Context context) {
+        if (!(context instanceof Indexable indexable)) {
+            throw new AnalysisException(getClass().getSimpleName() +
+                    " requires indexable contexts, given: " + context);
+        }
+        ContextTable table = getOrNull(contextTables, indexable.getIndex());
+        if (table == null) {
+            table = new ContextTable();
+            set(contextTables, indexable.getIndex(), table);
+        }
+        return table;
+    }
+
+    private MethodTable getMethodTable(Context context, JMethod method) {
+        return getContextTable(context).methods
+                .computeIfAbsent(method, m -> new MethodTable());
+    }
+
+    private <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        return pointer;
+    }
+
+    private static <E> E[] grow(E[] array, int index) {
+        return Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+    }
+
+    private static <E> E getOrNull(List<E> list, int index) {
+        return index < list.size() ? list.get(index) : null;
+    }
+
+    private static <E> void set(List<E> list, int index, E element) {
+        while (list.size() <= index) {
+            list.add(null);
+        }
+        list.set(index, element);
+    }
+
+    /**
+     * Elements in a context.
+     */
+    private static class ContextTable {
+
+        private final Map<JMethod, MethodTable> methods = Maps.newHybridMap();
+
+        private final Map<Obj, CSObj> objs = Maps.newHybridMap();
+    }
+
+    /**
+     * Elements of a method in a context.
+     */
+    private static class MethodTable {
+
+        private static final CSVar[] EMPTY_VARS = new CSVar[0];
+
+        private static final CSCallSite[] EMPTY_CALL_SITES = new CSCallSite[0];
+
+        private CSMethod csMethod;
+
+        private CSVar[] vars = EMPTY_VARS;
+
+        private CSCallSite[] callSites = EMPTY_CALL_SITES;
+    }
+}
@@ -25,19 +25,27 @@ package pascal.taie.analysis.pta.core.cs.element;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexable;
 
 /**
  * Represents context-sensitive variables.
  */
-public class CSVar extends AbstractPointer implements CSElement {
+public class CSVar extends AbstractPointer implements CSElement, Indexable {
 
     private final Var var;
 
     private final Context context;
 
-    CSVar(Var var, Context context) {
+    /**
+     * Index of this CS variable, given by the {@link CSManager} that
+     * creates this variable.
+     */
+    private final int index;
+
+    CSVar(Var var, Context context, int index) {
         this.var = var;
         this.context = context;
+        this.index = index;
     }
 
     @Override
@@ -52,6 +60,11 @@ public class CSVar extends AbstractPointer implements CSElement {
         return var;
     }
 
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public Type getType() {
         return var.getType();
@@ -23,21 +23,83 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * If cycle elimination is enabled, this PFG performs lazy cycle detection
+ * (Hardekopf and Lin, PLDI'07): when an edge (source -> target) is added
+ * or propagated and the points-to sets of its two ends are already equal,
+ * which suggests that the edge is on a cycle, this PFG searches for
+ * the cycle and collapses all pointers on it into one representative.
+ * Collapsed pointers share one points-to set, so the results are still
+ * available from every original pointer. Each edge is checked at most once.
  */
 class PointerFlowGraph {
 
     /**
      * Map from a pointer (node) to its successors in PFG.
+     * If cycle elimination is enabled, only representatives have successors.
      */
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
+    /**
+     * Whether cycle elimination is enabled.
+     */
+    private final boolean cycleElim;
+
+    /**
+     * Receives a representative and the points-to set that needs to be
+     * propagated from it after a cycle is collapsed.
+     */
+    private final BiConsumer<Pointer, PointsToSet> collapseHandler;
+
+    /**
+     * Union-find parents of collapsed pointers.
+     * Representatives are absent in this map.
+     */
+    private final Map<Pointer, Pointer> parents = Maps.newMap();
+
+    /**
+     * Map from a representative to the other pointers collapsed into it.
+     */
+    private final MultiMap<Pointer, Pointer> collapsed = Maps.newMultiMap();
+
+    /**
+     * Edges that have been checked by cycle detection.
+     */
+    private final Set<Pair<Pointer, Pointer>> checkedEdges = Sets.newSet();
+
+    /**
+     * @param cycleElim       whether cycle elimination is enabled
+     * @param collapseHandler receives the representative of each collapsed
+     *                        cycle and the union of the points-to sets of
+     *                        the collapsed pointers, which must be propagated
+     *                        to the successors of the representative
+     */
+    PointerFlowGraph(boolean cycleElim,
+                     BiConsumer<Pointer, PointsToSet> collapseHandler) {
+        this.cycleElim = cycleElim;
+        this.collapseHandler = collapseHandler;
+    }
+
     /**
      * Adds an edge (source -> target) to this PFG.
      *
@@ -45,13 +107,262 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        if (!cycleElim) {
+            return successors.put(source, target);
+        }
+        Pointer s = getRepresentative(source);
+        Pointer t = getRepresentative(target);
+        if (s == t) { // the edge is inside a collapsed cycle
+            return false;
+        }
+        if (successors.put(s, t)) {
+            checkCycle(s, t);
+            return true;
+        } else {
+            return false;
+        }
     }
 
     /**
      * @return successors of given pointer in the PFG.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.get(getRepresentative(pointer));
+    }
+
+    /**
+     * @return the pointers reachable from given pointers in this PFG,
+     * including given pointers themselves.
+     */
+    Set<Pointer> getReachableFrom(Collection<? extends Pointer> pointers) {
+        Set<Pointer> reachable = Sets.newSet();
+        Deque<Pointer> queue = new ArrayDeque<>();
+        for (Pointer p : pointers) {
+            if (reachable.add(p)) {
+                queue.add(p);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (Pointer succ : getSuccsOf(queue.poll())) {
+                if (reachable.add(succ)) {
+                    queue.add(succ);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Performs the given action for each edge (source -> target) in this PFG.
+     */
+    void forEachEdge(BiConsumer<Pointer, Pointer> action) {
+        successors.forEach(action);
+    }
+
+    /**
+     * Removes all edges from and to given pointers.
+     * This is not supported if cycle elimination is enabled,
+     * as the edges of collapsed pointers have been merged.
+     */
+    void removeEdges(Set<? extends Pointer> pointers) {
+        if (cycleElim) {
+            throw new AnalysisException(
+                    "Cannot remove edges when cycle elimination is enabled");
+        }
+        pointers.forEach(successors::removeAll);
+        for (Pointer source : List.copyOf(successors.keySet())) {
+            List<Pointer> targets = successors.get(source)
+                    .stream()
+                    .filter(pointers::contains)
+                    .toList();
+            if (!targets.isEmpty()) {
+                successors.removeAll(source, targets);
+            }
+        }
+    }
+
+    /**
+     * @return the representative of the collapsed cycle that contains
+     * given pointer, or the pointer itself if it has not been collapsed.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        Pointer parent = parents.get(pointer);
+        if (parent == null) {
+            return pointer;
+        }
+        Pointer rep = getRepresentative(parent);
+        if (rep != parent) { // path compression
+            parents.put(pointer, rep);
+        }
+        return rep;
+    }
+
+    /**
+     * @return all pointers that have been collapsed together with given
+     * pointer, including itself. These pointers share one points-to set,
+     * so when new objects reach the set via any of them, the solver
+     * should process the new objects for all of them.
+     */
+    Set<Pointer> getCollapsedPointers(Pointer pointer) {
+        Pointer rep = getRepresentative(pointer);
+        Set<Pointer> members = collapsed.get(rep);
+        if (members.isEmpty()) {
+            return Set.of(pointer);
+        }
+        Set<Pointer> result = Sets.newSet(members.size() + 1);
+        result.add(rep);
+        result.addAll(members);
+        return result;
+    }
+
+    /**
+     * Lazy cycle detection for edge (source -> target). The solver should
+     * call this method after propagating points-to set along the edge.
+     * Nothing happens if cycle elimination is disabled, if the edge has
+     * been checked before, or if the points-to sets of source and target
+     * differ.
+     *
+     * @return true if a cycle was collapsed, otherwise false.
+     */
+    boolean checkCycle(Pointer source, Pointer target) {
+        if (!cycleElim) {
+            return false;
+        }
+        Pointer s = getRepresentative(source);
+        Pointer t = getRepresentative(target);
+        if (s == t || !haveSamePointsToSet(s, t)
+                || !checkedEdges.add(new Pair<>(s, t))) {
+            return false;
+        }
+        List<Pointer> cycle = findCycle(s, t);
+        if (cycle.isEmpty()) {
+            return false;
+        }
+        collapse(s, cycle);
+        return true;
+    }
+
+    private static boolean haveSamePointsToSet(Pointer p1, Pointer p2) {
+        PointsToSet pts1 = p1.getPointsToSet();
+        PointsToSet pts2 = p2.getPointsToSet();
+        if (pts1 == pts2) {
+            return true;
+        }
+        if (pts1.isEmpty() || pts1.size() != pts2.size()) {
+            return false;
+        }
+        return pts1.objects().allMatch(pts2::contains);
+    }
+
+    /**
+     * Finds the pointers (other than source) on the cycles that go through
+     * edge (source -> target), i.e., the pointers that are reachable from
+     * target and can reach source. As the edge exists, these pointers
+     * and source form the strongly connected component of target, which
+     * is computed by Tarjan's algorithm with an iterative DFS from target.
+     */
+    private List<Pointer> findCycle(Pointer source, Pointer target) {
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lowLinks = Maps.newMap();
+        Deque<Pointer> sccStack = new ArrayDeque<>();
+        Set<Pointer> onSccStack = Sets.newSet();
+        Deque<Pair<Pointer, Iterator<Pointer>>> dfsStack = new ArrayDeque<>();
+        visit(target, indexes, lowLinks, sccStack, onSccStack, dfsStack);
+        while (!dfsStack.isEmpty()) {
+            Pair<Pointer, Iterator<Pointer>> top = dfsStack.peek();
+            Pointer node = top.first();
+            Iterator<Pointer> it = top.second();
+            if (it.hasNext()) {
+                Pointer succ = getRepresentative(it.next());
+                if (!indexes.containsKey(succ)) {
+                    visit(succ, indexes, lowLinks, sccStack, onSccStack, dfsStack);
+                } else if (onSccStack.contains(succ)) {
+                    lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(succ)));
+                }
+                continue;
+            }
+            dfsStack.pop();
+            int lowLink = lowLinks.get(node);
+            if (!dfsStack.isEmpty()) {
+                Pointer parent = dfsStack.peek().first();
+                lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+            }
+            if (lowLink == indexes.get(node)) { // node is root of an SCC
+                List<Pointer> scc = new ArrayList<>();
+                Pointer p;
+                do {
+                    p = sccStack.pop();
+                    onSccStack.remove(p);
+                    scc.add(p);
+                } while (p != node);
+                if (node == target) { // target is the DFS root, so it is done
+                    if (!scc.remove(source)) { // source is not reachable
+                        return List.of();
+                    }
+                    return scc;
+                }
+            }
+        }
+        throw new AnalysisException("Target " + target + " is not finished by DFS");
+    }
+
+    private void visit(Pointer node,
+                       Map<Pointer, Integer> indexes,
+                       Map<Pointer, Integer> lowLinks,
+                       Deque<Pointer> sccStack,
+                       Set<Pointer> onSccStack,
+                       Deque<Pair<Pointer, Iterator<Pointer>>> dfsStack) {
+        int index = indexes.size();
+        indexes.put(node, index);
+        lowLinks.put(node, index);
+        sccStack.push(node);
+        onSccStack.add(node);
+        dfsStack.push(new Pair<>(node, successors.get(node).iterator()));
+    }
+
+    /**
+     * Collapses given pointers into representative rep.
+     */
+    private void collapse(Pointer rep, List<Pointer> cycle) {
+        // rep keeps its own out-edges and must not become its own parent
+        cycle = cycle.stream().filter(p -> p != rep).toList();
+        // rep, the pointers on the cycle, and the pointers collapsed before
+        Set<Pointer> members = Sets.newSet();
+        members.add(rep);
+        members.addAll(collapsed.get(rep));
+        members.addAll(cycle);
+        cycle.forEach(p -> members.addAll(collapsed.get(p)));
+        PointsToSet union = PointsToSetFactory.make();
+        union.addAll(rep.getPointsToSet());
+        for (Pointer p : cycle) {
+            parents.put(p, rep);
+            collapsed.put(rep, p);
+            // p may be the representative of a previously collapsed cycle
+            collapsed.putAll(rep, collapsed.get(p));
+            collapsed.removeAll(p);
+            union.addAll(p.getPointsToSet());
+            // merge out-edges of p into those of rep
+            for (Pointer succ : successors.get(p)) {
+                Pointer s = getRepresentative(succ);
+                if (!members.contains(s)) {
+                    successors.put(rep, s);
+                }
+            }
+            successors.removeAll(p);
+        }
+        // drop edges between the collapsed pointers
+        List<Pointer> innerSuccs = successors.get(rep)
+                .stream()
+                .filter(succ -> members.contains(getRepresentative(succ)))
+                .toList();
+        successors.removeAll(rep, innerSuccs);
+        // all members share a fresh points-to set, and the union is
+        // handed to the solver, which propagates it to rep and
+        // its successors as a normal delta
+        PointsToSet shared = PointsToSetFactory.make();
+        members.forEach(p -> p.setPointsToSet(shared));
+        if (collapseHandler != null) {
+            collapseHandler.accept(rep, union);
+        }
     }
 }
@@ -32,6 +32,7 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
@@ -49,7 +50,10 @@ import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
@@ -62,6 +66,19 @@ import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class Solver {
 
@@ -83,6 +100,13 @@ public class Solver {
 
     private TaintAnalysiss taintAnalysis;
 
+    /**
+     * Fingerprints of the reachable methods when the last call of
+     * {@link #solve()} or {@link #resume(Collection)} finished,
+     * or null if option "incremental" is false.
+     */
+    private MethodFingerprints fingerprints;
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
@@ -92,6 +116,25 @@ public class Solver {
         this.contextSelector = contextSelector;
     }
 
+    /**
+     * Creates a solver that continues from the state of an earlier run
+     * (see {@link #getState()}), whose results are updated by
+     * {@link #resume(Collection)}.
+     */
+    Solver(AnalysisOptions options, SolverState state) {
+        this(options, state.heapModel(), state.contextSelector());
+        csManager = state.csManager();
+        // the points-to set factory may have been set up by another run
+        PointsToSetFactory.setUp(options.getString("pts"),
+                csManager.getObjectIndexer());
+        callGraph = state.callGraph();
+        pointerFlowGraph = state.pointerFlowGraph();
+        workList = state.workList();
+        fingerprints = state.fingerprints();
+        taintAnalysis = state.taintAnalysis();
+        taintAnalysis.setSolver(this);
+    }
+
     public AnalysisOptions getOptions() {
         return options;
     }
@@ -104,17 +147,31 @@ public class Solver {
         return csManager;
     }
 
+    /**
+     * @return successors of given pointer in the pointer flow graph.
+     */
+    public Set<Pointer> getSuccsOf(Pointer pointer) {
+        return pointerFlowGraph.getSuccsOf(pointer);
+    }
+
     void solve() {
         initialize();
         analyze();
+        if (options.getBooleanOrDefault("incremental", false)) {
+            fingerprints = fingerprintReachableMethods();
+        }
         taintAnalysis.onFinish();
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
+        csManager = makeCSManager(options.getString("cs-manager"));
+        PointsToSetFactory.setUp(options.getString("pts"),
+                csManager.getObjectIndexer());
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
+        pointerFlowGraph = new PointerFlowGraph(
+                options.getBooleanOrDefault("cycle-elim", false),
+                workList::addEntry);
         taintAnalysis = new TaintAnalysiss(this);
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
@@ -128,7 +185,13 @@ public class Solver {
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
-        // TODO - finish me
+        if (!taintAnalysis.isInSlice(csMethod.getMethod())) {
+            return;
+        }
+        if (callGraph.addReachableMethod(csMethod)) {
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().forEach(s -> s.accept(stmtProcessor));
+        }
     }
 
     /**
@@ -145,31 +208,150 @@ public class Solver {
             this.context = csMethod.getContext();
         }
 
-        // TODO - if you choose to implement addReachable()
-        //  via visitor pattern, then finish me
+        @Override
+        public Void visit(New stmt) {
+            Obj obj = heapModel.getObj(stmt);
+            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()),
+                    PointsToSetFactory.make(csManager.getCSObj(heapContext, obj)));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                    csManager.getCSVar(context, stmt.getLValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getStaticField(field),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getStaticField(field));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                JMethod callee = resolveCallee(null, stmt);
+                CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                Context calleeContext = contextSelector.selectContext(
+                        csCallSite, callee);
+                addCallEdge(new Edge<>(CallKind.STATIC, csCallSite,
+                        csManager.getCSMethod(calleeContext, callee)));
+            }
+            return null;
+        }
     }
 
     /**
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
-        // TODO - finish me
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet pts = source.getPointsToSet();
+            if (!pts.isEmpty()) {
+                workList.addEntry(target, pts);
+            }
+        }
     }
 
     /**
      * Processes work-list entries until the work-list is empty.
+     * If cycle elimination is enabled, the pointers collapsed together
+     * share one points-to set, thus the new objects of a pointer are
+     * processed for all variables collapsed with it.
+     * <p>
+     * The new taint objects of a variable are transferred at the calls
+     * to taint-transfer methods that transfer taints from the variable
+     * (see {@link TaintAnalysiss#transferTaints}).
      */
     private void analyze() {
-        // TODO - finish me
+        WorkList.Entry entry;
+        while ((entry = workList.pollEntry()) != null) {
+            Pointer pointer = entry.pointer();
+            PointsToSet delta = propagate(pointer, entry.pointsToSet());
+            if (!delta.isEmpty()) {
+                for (Pointer p : pointerFlowGraph.getCollapsedPointers(pointer)) {
+                    if (p instanceof CSVar csVar) {
+                        processNewObjects(csVar, delta);
+                        taintAnalysis.transferTaints(csVar, delta)
+                                .forEach(this::addTransfer);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes the field/array accesses and instance calls on given
+     * variable for the objects newly pointed to by it.
+     * <p>
+     * Taint objects are filtered out by {@link TaintAnalysiss#removeTaints}
+     * before the field/array accesses, as no fields or array elements of
+     * them are stored, i.e., the heap machinery is skipped for the entries
+     * that bring only taint objects. Instance calls are still processed
+     * for them, as a taint object may be the receiver of a call to
+     * a taint-transfer method.
+     */
+    private void processNewObjects(CSVar csVar, PointsToSet delta) {
+        Var var = csVar.getVar();
+        Context context = csVar.getContext();
+        for (CSObj obj : taintAnalysis.removeTaints(delta)) {
+            for (StoreField store : var.getStoreFields()) {
+                JField field = store.getFieldRef().resolve();
+                addPFGEdge(csManager.getCSVar(context, store.getRValue()),
+                        csManager.getInstanceField(obj, field));
+            }
+            for (LoadField load : var.getLoadFields()) {
+                JField field = load.getFieldRef().resolve();
+                addPFGEdge(csManager.getInstanceField(obj, field),
+                        csManager.getCSVar(context, load.getLValue()));
+            }
+            for (StoreArray store : var.getStoreArrays()) {
+                addPFGEdge(csManager.getCSVar(context, store.getRValue()),
+                        csManager.getArrayIndex(obj));
+            }
+            for (LoadArray load : var.getLoadArrays()) {
+                addPFGEdge(csManager.getArrayIndex(obj),
+                        csManager.getCSVar(context, load.getLValue()));
+            }
+        }
+        for (CSObj obj : delta) {
+            processCall(csVar, obj);
+        }
     }
 
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
+     * Each edge along which the difference set is propagated is checked
+     * for lazy cycle detection (see {@link PointerFlowGraph#checkCycle}).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        // TODO - finish me
-        return null;
+        PointsToSet delta = pointer.getPointsToSet().addAllDiff(pointsToSet);
+        if (!delta.isEmpty()) {
+            // collapsing a cycle changes the successors
+            for (Pointer succ : List.copyOf(pointerFlowGraph.getSuccsOf(pointer))) {
+                pointerFlowGraph.checkCycle(pointer, succ);
+                workList.addEntry(succ, delta);
+            }
+        }
+        return delta;
     }
 
     /**
@@ -179,7 +361,76 @@ public class Solver {
      * @param recvObj set of new discovered objects pointed by the variable.
      */
     private void processCall(CSVar recv, CSObj recvObj) {
-        // TODO - finish me
+        Context context = recv.getContext();
+        for (Invoke callSite : recv.getVar().getInvokes()) {
+            JMethod callee = resolveCallee(recvObj, callSite);
+            if (callee == null) {
+                continue;
+            }
+            CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
+            Context calleeContext = contextSelector.selectContext(
+                    csCallSite, recvObj, callee);
+            CSMethod csCallee = csManager.getCSMethod(calleeContext, callee);
+            workList.addEntry(csManager.getCSVar(calleeContext,
+                            callee.getIR().getThis()),
+                    PointsToSetFactory.make(recvObj));
+            addCallEdge(new Edge<>(CallGraphs.getCallKind(callSite),
+                    csCallSite, csCallee));
+        }
+    }
+
+    /**
+     * Adds a call edge to the call graph. If the edge is new, makes
+     * the callee reachable and adds the PFG edges that pass the arguments
+     * to the parameters and the return values to the call result.
+     * If the callee is a source method, the taint objects made by
+     * {@link TaintAnalysiss#makeTaints} flow to the call result, which
+     * is reported to {@link TaintAnalysiss#recordSource}.
+     * If the callee is a taint-transfer method (see
+     * {@link TaintAnalysiss#isTransfer}), the taint objects pointed to by
+     * the base and arguments are transferred at the call from now on.
+     */
+    private void addCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (!callGraph.addEdge(edge)) {
+            return;
+        }
+        CSMethod csCallee = edge.getCallee();
+        addReachable(csCallee);
+        Context callerContext = edge.getCallSite().getContext();
+        Context calleeContext = csCallee.getContext();
+        Invoke callSite = edge.getCallSite().getCallSite();
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        IR calleeIR = csCallee.getMethod().getIR();
+        for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+            addPFGEdge(csManager.getCSVar(callerContext, invokeExp.getArg(i)),
+                    csManager.getCSVar(calleeContext, calleeIR.getParam(i)));
+        }
+        Var result = callSite.getLValue();
+        if (result != null) {
+            CSVar csResult = csManager.getCSVar(callerContext, result);
+            for (Var ret : calleeIR.getReturnVars()) {
+                addPFGEdge(csManager.getCSVar(calleeContext, ret), csResult);
+            }
+            for (CSObj taint : taintAnalysis.makeTaints(
+                    callSite, csCallee.getMethod())) {
+                workList.addEntry(csResult, PointsToSetFactory.make(taint));
+                taintAnalysis.recordSource(csResult, taint);
+            }
+        }
+        if (taintAnalysis.isTransfer(csCallee.getMethod())) {
+            taintAnalysis.addTransferEdge(edge).forEach(this::addTransfer);
+        }
+    }
+
+    /**
+     * Lets the transferred taint object flow to the "to" variable,
+     * which is reported to {@link TaintAnalysiss#recordTransfer}.
+     */
+    private void addTransfer(TaintAnalysiss.Transfer transfer) {
+        workList.addEntry(transfer.target(),
+                PointsToSetFactory.make(transfer.taint()));
+        taintAnalysis.recordTransfer(transfer.source(), transfer.from(),
+                transfer.target(), transfer.taint(), transfer.call());
     }
 
     /**
@@ -195,6 +446,199 @@ public class Solver {
         return CallGraphs.resolveCallee(type, callSite);
     }
 
+    /**
+     * Incrementally updates the results after the IR of given methods
+     * changed, i.e., {@link JMethod#getIR()} of them returns the new IR.
+     * <p>
+     * The facts that may depend on the old IR are retracted first.
+     * A context-sensitive method is retracted if it is a changed method,
+     * a callee of a retracted method, or contains a variable whose
+     * points-to set is cleared, i.e., a variable reachable in the PFG
+     * from the variables of a retracted method. For the retracted methods,
+     * <ul>
+     *     <li>the call edges to and from them are removed,</li>
+     *     <li>the PFG edges of their variables are removed, which include
+     *     the edges added for their statements, for the call edges
+     *     to and from them, and for the field and array accesses based on
+     *     their variables,</li>
+     *     <li>they are removed from the reachable methods.</li>
+     * </ul>
+     * The points-to sets of their variables and of the cleared pointers
+     * are emptied. Then the facts are derived again from the intact part:
+     * from the PFG edges that enter the cleared pointers from intact ones,
+     * from the retracted entry methods, and from the intact call sites that
+     * called retracted methods, which are processed again.
+     * This is not supported if cycle elimination is enabled.
+     */
+    void resume(Collection<JMethod> changedMethods) {
+        Set<JMethod> changed = Set.copyOf(changedMethods);
+        MultiMap<CSMethod, CSVar> varsOf = Maps.newMultiMap();
+        csManager.getCSVars().forEach(v -> varsOf.put(csManager.getCSMethod(
+                v.getContext(), v.getVar().getMethod()), v));
+        // callSitesIn() reads the new IR, thus the call edges of
+        // the old call sites are collected from the callee side
+        MultiMap<CSMethod, Edge<CSCallSite, CSMethod>> edgesOutOf = Maps.newMultiMap();
+        callGraph.reachableMethods()
+                .flatMap(callGraph::edgesInTo)
+                .forEach(e -> edgesOutOf.put(e.getCallSite().getContainer(), e));
+        // find the retracted methods and the cleared pointers
+        Set<CSMethod> retracted = Sets.newSet();
+        Set<Pointer> cleared = Sets.newSet();
+        Deque<CSMethod> queue = new ArrayDeque<>();
+        callGraph.reachableMethods()
+                .filter(m -> changed.contains(m.getMethod()))
+                .forEach(m -> {
+                    retracted.add(m);
+                    queue.add(m);
+                });
+        while (!queue.isEmpty()) {
+            CSMethod csMethod = queue.poll();
+            for (Edge<CSCallSite, CSMethod> edge : edgesOutOf.get(csMethod)) {
+                if (retracted.add(edge.getCallee())) {
+                    queue.add(edge.getCallee());
+                }
+            }
+            for (Pointer p : pointerFlowGraph.getReachableFrom(varsOf.get(csMethod))) {
+                if (cleared.add(p) && p instanceof CSVar v) {
+                    CSMethod container = csManager.getCSMethod(
+                            v.getContext(), v.getVar().getMethod());
+                    if (retracted.add(container)) {
+                        queue.add(container);
+                    }
+                }
+            }
+        }
+        // retract the call edges, i.e., the edges from the call sites
+        // of the old IR, and the intact call sites that call retracted methods
+        Set<CSCallSite> intactCallSites = Sets.newSet();
+        List<Edge<CSCallSite, CSMethod>> edges = edgesOutOf.values()
+                .stream()
+                .filter(e -> retracted.contains(e.getCallee())
+                        || retracted.contains(e.getCallSite().getContainer()))
+                .toList();
+        for (Edge<CSCallSite, CSMethod> edge : edges) {
+            callGraph.removeEdge(edge);
+            if (taintAnalysis.isTransfer(edge.getCallee().getMethod())) {
+                taintAnalysis.removeTransferEdge(edge);
+            }
+            if (!retracted.contains(edge.getCallSite().getContainer())) {
+                intactCallSites.add(edge.getCallSite());
+            }
+        }
+        // retract the PFG edges and the points-to sets
+        Set<CSVar> retractedVars = Sets.newSet();
+        retracted.forEach(m -> retractedVars.addAll(varsOf.get(m)));
+        pointerFlowGraph.removeEdges(retractedVars);
+        cleared.addAll(retractedVars);
+        cleared.forEach(p -> p.setPointsToSet(PointsToSetFactory.make()));
+        taintAnalysis.clearProvenance(cleared);
+        retracted.forEach(callGraph::removeReachableMethod);
+        logger.info("Resuming analysis: {} changed methods, {} retracted" +
+                        " methods, {} cleared pointers, {} removed call edges",
+                changed.size(), retracted.size(), cleared.size(), edges.size());
+        // derive the facts again
+        pointerFlowGraph.forEachEdge((source, target) -> {
+            if (!cleared.contains(source) && cleared.contains(target)
+                    && !source.getPointsToSet().isEmpty()) {
+                workList.addEntry(target, source.getPointsToSet());
+            }
+        });
+        callGraph.entryMethods()
+                .filter(retracted::contains)
+                .forEach(this::addReachable);
+        for (CSCallSite csCallSite : intactCallSites) {
+            Invoke callSite = csCallSite.getCallSite();
+            if (callSite.getInvokeExp() instanceof InvokeInstanceExp invokeExp) {
+                CSVar recv = csManager.getCSVar(
+                        csCallSite.getContext(), invokeExp.getBase());
+                recv.getPointsToSet().objects()
+                        .toList() // processCall() may change the points-to set
+                        .forEach(recvObj -> processCall(recv, recvObj));
+            } else {
+                callSite.accept(new StmtProcessor(csCallSite.getContainer()));
+            }
+        }
+        result = null;
+        analyze();
+        fingerprints = fingerprintReachableMethods();
+        taintAnalysis.onFinish();
+    }
+
+    /**
+     * @return the reachable methods whose IR changed since the last call
+     * of {@link #solve()} or {@link #resume(Collection)}, which can be
+     * passed to {@link #resume(Collection)}.
+     */
+    Set<JMethod> getChangedMethods() {
+        if (fingerprints == null) {
+            throw new AnalysisException(
+                    "Changed methods are only tracked if option 'incremental' is true");
+        }
+        Set<String> changed = fingerprintReachableMethods().diff(fingerprints);
+        return callGraph.reachableMethods()
+                .map(CSMethod::getMethod)
+                .filter(m -> changed.contains(m.getSignature()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return the state of this solver, from which a later run
+     * can resume (see {@link #Solver(AnalysisOptions, SolverState)}).
+     * @throws AnalysisException if option "incremental" is false.
+     */
+    SolverState getState() {
+        if (fingerprints == null) {
+            throw new AnalysisException(
+                    "Solver state is only kept if option 'incremental' is true");
+        }
+        return new SolverState(options.toString(), heapModel, contextSelector,
+                csManager, callGraph, pointerFlowGraph, workList, fingerprints,
+                taintAnalysis);
+    }
+
+    private MethodFingerprints fingerprintReachableMethods() {
+        return MethodFingerprints.of(
+                callGraph.reachableMethods().map(CSMethod::getMethod).distinct());
+    }
+
+    /**
+     * If option "snapshot" is given, reports the reachable methods
+     * changed since the snapshot file was written, and then updates
+     * the snapshot file. This is not called for pre-analyses.
+     */
+    void updateSnapshot() {
+        String snapshot = options.getString("snapshot");
+        if (snapshot == null) {
+            return;
+        }
+        Path path = Path.of(snapshot);
+        MethodFingerprints current = fingerprints != null ?
+                fingerprints : fingerprintReachableMethods();
+        if (Files.exists(path)) {
+            Set<String> changed = current.diff(MethodFingerprints.load(path));
+            logger.info("{} methods changed since the last snapshot",
+                    changed.size());
+            changed.stream().sorted().forEach(m -> logger.info("  {}", m));
+        }
+        current.dump(path);
+    }
+
+    /**
+     * @return the CS manager given by option "cs-manager", i.e.,
+     * "map" (the default) for {@link MapBasedCSManager},
+     * or "array" for {@link ArrayBasedCSManager}.
+     * @throws ConfigException if the kind is unknown.
+     */
+    private static CSManager makeCSManager(String kind) {
+        if (kind == null || kind.equals("map")) {
+            return new MapBasedCSManager();
+        } else if (kind.equals("array")) {
+            return new ArrayBasedCSManager();
+        } else {
+            throw new ConfigException("Unknown CS manager: " + kind);
+        }
+    }
+
     public PointerAnalysisResult getResult() {
         if (result == null) {
             result = new PointerAnalysisResultImpl(csManager, callGraph);
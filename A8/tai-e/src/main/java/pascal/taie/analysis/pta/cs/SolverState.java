@@ -0,0 +1,54 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+
+import java.util.Collection;
+
+/**
+ * The state of {@link Solver} after a run with option "incremental",
+ * i.e., everything that {@link Solver#resume(Collection)} needs to update
+ * the results of the run. {@link CSPTA} keeps it in {@link World},
+ * thus it is dropped when the World is reset.
+ *
+ * @param options      text of the options of the run, which must be
+ *                     equal to the options of the resuming run
+ * @param fingerprints fingerprints of the reachable methods when
+ *                     the run finished
+ */
+record SolverState(String options,
+                   HeapModel heapModel,
+                   ContextSelector contextSelector,
+                   CSManager csManager,
+                   CSCallGraph callGraph,
+                   PointerFlowGraph pointerFlowGraph,
+                   WorkList workList,
+                   MethodFingerprints fingerprints,
+                  TaintAnalysiss taintAnalysis) {
+}
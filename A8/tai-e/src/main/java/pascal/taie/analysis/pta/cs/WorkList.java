@@ -24,22 +24,46 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The work list keeps at most one pending entry for each pointer.
+ * When a points-to set is added for a pointer that is already in
+ * the work list, the set is merged into the pending one instead of
+ * creating a new entry, so that each pointer is propagated once for
+ * all objects accumulated before it is polled.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * Pointers with pending points-to sets, in order of becoming pending.
+     */
+    private final Queue<Pointer> pointers = new ArrayDeque<>();
 
     /**
-     * Adds an entry to the work list.
+     * Map from pointers to their pending points-to sets.
+     */
+    private final Map<Pointer, Pending> pendings = Maps.newMap();
+
+    /**
+     * Adds an entry to the work list. If given pointer already has
+     * a pending entry, then pointsToSet is merged into that entry.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        Pending pending = pendings.get(pointer);
+        if (pending == null) {
+            pendings.put(pointer, new Pending(pointsToSet));
+            pointers.add(pointer);
+        } else {
+            pending.merge(pointsToSet);
+        }
     }
 
     /**
@@ -47,14 +71,45 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Pointer pointer = pointers.poll();
+        if (pointer == null) {
+            return null;
+        }
+        return new Entry(pointer, pendings.remove(pointer).pointsToSet);
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return pointers.isEmpty();
+    }
+
+    /**
+     * Pending points-to set of a pointer. The points-to set given by
+     * the first {@link #addEntry} may be shared with other pointers
+     * (e.g., the points-to set of a PFG source), thus it is copied
+     * before the first merge instead of being modified in place.
+     */
+    private static class Pending {
+
+        private PointsToSet pointsToSet;
+
+        private boolean owned = false;
+
+        private Pending(PointsToSet pointsToSet) {
+            this.pointsToSet = pointsToSet;
+        }
+
+        private void merge(PointsToSet pts) {
+            if (!owned) {
+                PointsToSet copy = PointsToSetFactory.make();
+                copy.addAll(pointsToSet);
+                pointsToSet = copy;
+                owned = true;
+            }
+            pointsToSet.addAll(pts);
+        }
     }
 
     /**
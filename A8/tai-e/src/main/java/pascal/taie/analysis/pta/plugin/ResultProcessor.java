@@ -26,12 +26,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.plugin.taint.TaintWitness;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -47,17 +50,19 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import static pascal.taie.util.collection.CollectionUtils.sum;
-
 /**
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
  * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * It is not efficient and not recommended applying on large program,
+ * unless the results are stored in binary format (option "format: binary"),
+ * see {@link BinaryPointerAnalysisResult}.
  */
 public class ResultProcessor {
 
@@ -70,8 +75,21 @@ public class ResultProcessor {
      */
     private static final String SEP = " -> ";
 
+    /**
+     * Key of the taint flows of all rule packs in the dumped file.
+     */
+    private static final String ALL_FLOWS = "";
+
+    private static final Pattern PACK_HEADER = Pattern.compile(
+            "Detected \\d+ taint flow\\(s\\) of rule pack (.+):");
+
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Size of the buffer and the chunks for dumping points-to sets.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -80,10 +98,15 @@ public class ResultProcessor {
             return;
         }
         String file = options.getString("file");
-        boolean taintEnabled = options.getString("taint-config") != null;
+        boolean binary = "binary".equals(options.getString("format"));
+        boolean taintEnabled = options.get("taint-config") != null;
         switch (action) {
             case "dump":
-                dumpPointsToSet(result, file, taintEnabled);
+                if (binary) {
+                    dumpBinary(result, file);
+                } else {
+                    dumpPointsToSet(result, file, taintEnabled);
+                }
                 break;
             case "compare":
                 if (taintEnabled) {
@@ -91,7 +114,7 @@ public class ResultProcessor {
                     // detected taint flows
                     compareTaintFlows(result, file);
                 } else {
-                    comparePointsToSet(result, file);
+                    comparePointsToSet(result, file, binary);
                 }
                 break;
         }
@@ -100,16 +123,18 @@ public class ResultProcessor {
     private static void printStatistics(PointerAnalysisResult result) {
         int varInsens = result.getVars().size();
         int varSens = result.getCSVars().size();
-        int vptSizeInsens = sum(result.getVars(), v -> result.getPointsToSet(v).size());
-        ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
-        int vptSizeSens = sum(result.getCSVars(), getSize);
-        int sfptSizeSens = sum(result.getStaticFields(), getSize);
-        int ifptSizeSens = sum(result.getInstanceFields(), getSize);
-        int aptSizeSens = sum(result.getArrayIndexes(), getSize);
+        long vptSizeInsens = result.getVars()
+                .stream()
+                .mapToLong(v -> result.getPointsToSet(v).size())
+                .sum();
+        long vptSizeSens = sumPointsToSetSizes(result.getCSVars());
+        long sfptSizeSens = sumPointsToSetSizes(result.getStaticFields());
+        long ifptSizeSens = sumPointsToSetSizes(result.getInstanceFields());
+        long aptSizeSens = sumPointsToSetSizes(result.getArrayIndexes());
         int reachableInsens = result.getCallGraph().getNumberOfMethods();
         int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        int callEdgeInsens = result.getCallGraph().getNumberOfEdges();
+        int callEdgeSens = result.getCSCallGraph().getNumberOfEdges();
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
@@ -128,7 +153,16 @@ public class ResultProcessor {
         System.out.println("----------------------------------------");
     }
 
-    private static String format(int i) {
+    /**
+     * @return the total size of the points-to sets of given pointers.
+     */
+    private static long sumPointsToSetSizes(Collection<? extends Pointer> pointers) {
+        return pointers.parallelStream()
+                .mapToLong(p -> p.getPointsToSet().size())
+                .sum();
+    }
+
+    private static String format(long i) {
         return formatter.format(i);
     }
 
@@ -138,7 +172,8 @@ public class ResultProcessor {
         if (output != null) {  // if output file is given, then dump to the file
             File outFile = new File(output);
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
+                out = new PrintStream(new BufferedOutputStream(
+                        new FileOutputStream(outFile), BUFFER_SIZE));
                 logger.info("Dumping points-to set to {} ...", outFile);
             } catch (FileNotFoundException e) {
                 throw new RuntimeException("Failed to open output file", e);
@@ -160,34 +195,82 @@ public class ResultProcessor {
 
     private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
         out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
+        StringBuilder chunk = new StringBuilder(BUFFER_SIZE);
+        for (PointerEntry entry : toSortedEntries(pointers)) {
+            chunk.append(entry.pointer())
+                    .append(SEP)
+                    .append(entry.pointsTo())
+                    .append(System.lineSeparator());
+            if (chunk.length() >= BUFFER_SIZE) {
+                out.print(chunk);
+                chunk.setLength(0);
+            }
+        }
+        out.print(chunk);
         out.println();
     }
 
-    private static void comparePointsToSet(PointerAnalysisResult result, String input) {
+    /**
+     * String forms of a pointer and its points-to set.
+     */
+    private record PointerEntry(String pointer, String pointsTo) {
+    }
+
+    /**
+     * Converts given pointers to string forms in parallel.
+     *
+     * @return the entries sorted by the string forms of the pointers.
+     */
+    private static List<PointerEntry> toSortedEntries(
+            Collection<? extends Pointer> pointers) {
+        return pointers.parallelStream()
+                .map(p -> new PointerEntry(p.toString(), toString(p.getPointsToSet())))
+                .sorted(Comparator.comparing(PointerEntry::pointer))
+                .toList();
+    }
+
+    private static void dumpBinary(PointerAnalysisResult result, String output) {
+        if (output == null) {
+            throw new AnalysisException("Binary results must be dumped to a file");
+        }
+        logger.info("Dumping points-to set to {} in binary format ...", output);
+        BinaryResultWriter.write(result, Path.of(output));
+    }
+
+    private static void comparePointsToSet(PointerAnalysisResult result,
+                                           String input, boolean binary) {
         logger.info("Comparing points-to set with {} ...", input);
-        var inputs = readPointsToSets(input);
-        Map<String, Pointer> pointers = new LinkedHashMap<>();
+        Function<String, String> expectedOf;
+        Collection<String> expectedPointers;
+        if (binary) {
+            var inputs = BinaryPointerAnalysisResult.load(Path.of(input));
+            expectedOf = pointerStr -> {
+                List<String> pts = inputs.getPointsToSet(pointerStr);
+                return pts != null ? Streams.toString(pts.stream()) : null;
+            };
+            expectedPointers = inputs.getPointers();
+        } else {
+            var inputs = readPointsToSets(input);
+            expectedOf = inputs::get;
+            expectedPointers = inputs.keySet();
+        }
+        Map<String, String> pointers = new LinkedHashMap<>();
         addPointers(pointers, result.getCSVars());
         addPointers(pointers, result.getStaticFields());
         addPointers(pointers, result.getInstanceFields());
         addPointers(pointers, result.getArrayIndexes());
         List<String> mismatches = new ArrayList<>();
-        pointers.forEach((pointerStr, pointer) -> {
-            String given = toString(pointer.getPointsToSet());
-            String expected = inputs.get(pointerStr);
+        pointers.forEach((pointerStr, given) -> {
+            String expected = expectedOf.apply(pointerStr);
             if (!given.equals(expected)) {
                 mismatches.add(String.format("%s, expected: %s, given: %s",
                         pointerStr, expected, given));
             }
         });
-        inputs.keySet()
-                .stream()
+        expectedPointers.stream()
                 .filter(Predicate.not(pointers::containsKey))
                 .forEach(pointerStr -> {
-                    String expected = inputs.get(pointerStr);
+                    String expected = expectedOf.apply(pointerStr);
                     mismatches.add(String.format("%s, expected: %s, given: null",
                             pointerStr, expected));
                 });
@@ -211,11 +294,9 @@ public class ResultProcessor {
         }
     }
 
-    private static void addPointers(Map<String, Pointer> map,
+    private static void addPointers(Map<String, String> map,
                                     Collection<? extends Pointer> pointers) {
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> map.put(p.toString(), p));
+        toSortedEntries(pointers).forEach(e -> map.put(e.pointer(), e.pointsTo()));
     }
 
     private static String toString(PointsToSet pts) {
@@ -227,6 +308,22 @@ public class ResultProcessor {
         out.printf("Detected %d taint flow(s):%n", taintFlows.size());
         taintFlows.forEach(out::println);
         out.println();
+        if (result.getKeys().contains(TaintAnalysiss.WITNESSES)) {
+            List<TaintWitness> witnesses = result.getResult(TaintAnalysiss.WITNESSES);
+            out.printf("Witnesses of %d taint flow(s):%n", witnesses.size());
+            witnesses.forEach(out::println);
+            out.println();
+        }
+        if (result.getKeys().contains(TaintAnalysiss.PACK_FLOWS)) {
+            Map<String, Set<TaintFlow>> pack2Flows =
+                    result.getResult(TaintAnalysiss.PACK_FLOWS);
+            pack2Flows.forEach((pack, flows) -> {
+                out.printf("Detected %d taint flow(s) of rule pack %s:%n",
+                        flows.size(), pack);
+                flows.forEach(out::println);
+                out.println();
+            });
+        }
     }
 
     /**
@@ -243,34 +340,62 @@ public class ResultProcessor {
 
     private static void compareTaintFlows(PointerAnalysisResult result, String input) {
         logger.info("Comparing taint flows with {} ...", input);
-        List<String> inputs = readTaintFlows(input);
-        List<String> taintFlows = getTaintFlows(result)
-                .stream()
+        Map<String, List<String>> inputs = readTaintFlows(input);
+        List<String> mismatches = new ArrayList<>();
+        compareTaintFlows(getTaintFlows(result),
+                inputs.getOrDefault(ALL_FLOWS, List.of()), "", mismatches);
+        if (result.getKeys().contains(TaintAnalysiss.PACK_FLOWS)) {
+            Map<String, Set<TaintFlow>> pack2Flows =
+                    result.getResult(TaintAnalysiss.PACK_FLOWS);
+            pack2Flows.forEach((pack, flows) -> compareTaintFlows(flows,
+                    inputs.getOrDefault(pack, List.of()),
+                    " of rule pack " + pack, mismatches));
+        }
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException("Mismatches of taint flow(s)\n" +
+                    String.join("\n", mismatches));
+        }
+    }
+
+    private static void compareTaintFlows(Set<TaintFlow> flows,
+                                          List<String> inputs, String suffix,
+                                          List<String> mismatches) {
+        List<String> taintFlows = flows.stream()
                 .map(TaintFlow::toString)
                 .collect(Collectors.toList());
-        List<String> mismatches = new ArrayList<>();
         taintFlows.forEach(taintFlow -> {
             if (!inputs.contains(taintFlow)) {
-                mismatches.add(taintFlow + " should NOT be included");
+                mismatches.add(taintFlow + " should NOT be included" + suffix);
             }
         });
         inputs.forEach(expected -> {
             if (!taintFlows.contains(expected)) {
-                mismatches.add(expected + " should be included");
+                mismatches.add(expected + " should be included" + suffix);
             }
         });
-        if (!mismatches.isEmpty()) {
-            throw new AnalysisException("Mismatches of taint flow(s)\n" +
-                    String.join("\n", mismatches));
-        }
     }
 
-    private static List<String> readTaintFlows(String input) {
+    /**
+     * Reads the taint flows in the dumped file.
+     *
+     * @return map from names of rule packs to their taint flows.
+     * The flows of all rule packs are mapped from {@link #ALL_FLOWS}.
+     */
+    private static Map<String, List<String>> readTaintFlows(String input) {
         try {
-            List<String> taintFlows = new ArrayList<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.startsWith("TaintFlow{") && line.contains(SEP))
-                    .forEach(taintFlows::add);
+            Map<String, List<String>> taintFlows = new LinkedHashMap<>();
+            String section = ALL_FLOWS;
+            for (String line : Files.readAllLines(Path.of(input))) {
+                if (line.startsWith("Detected ") || line.startsWith("Witnesses ")) {
+                    Matcher matcher = PACK_HEADER.matcher(line);
+                    section = matcher.matches() ? matcher.group(1) :
+                            line.startsWith("Detected ") ? ALL_FLOWS : null;
+                } else if (section != null && line.startsWith("TaintFlow{")
+                        && line.contains(SEP)) {
+                    taintFlows.computeIfAbsent(section, k -> new ArrayList<>())
+                            .add(line);
+                }
+            }
             return taintFlows;
         } catch (IOException e) {
             throw new AnalysisException(
@@ -25,53 +25,476 @@ package pascal.taie.analysis.pta.plugin.taint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CHABuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Stream;
 
 public class TaintAnalysiss {
 
+    /**
+     * Key of the taint flow witnesses in the pointer analysis result.
+     */
+    public static final String WITNESSES = "taint-witnesses";
+
+    /**
+     * Key of the taint flows of each rule pack in the pointer analysis result.
+     */
+    public static final String PACK_FLOWS = "taint-pack-flows";
+
     private static final Logger logger = LogManager.getLogger(TaintAnalysiss.class);
 
     private final TaintManager manager;
 
+    /**
+     * The configuration, or the merged configuration of all rule packs
+     * if option "taint-config" gives multiple files.
+     */
     private final TaintConfig config;
 
-    private final Solver solver;
+    /**
+     * Map from names of rule packs to their configurations. It is empty
+     * if option "taint-config" gives only one file.
+     */
+    private final Map<String, TaintConfig> packs = new LinkedHashMap<>();
+
+    private Solver solver;
 
     private final CSManager csManager;
 
     private final Context emptyContext;
 
+    /**
+     * Methods relevant to the sources and sinks, computed on a CHA call
+     * graph if option "taint-slice" is true, otherwise null.
+     */
+    private final Set<JMethod> slice;
+
+    /**
+     * Call edges to taint-transfer methods, indexed by the variables
+     * from which the calls transfer taints.
+     */
+    private final MultiMap<CSVar, Edge<CSCallSite, CSMethod>> transferEdges =
+            Maps.newMultiMap();
+
+    /**
+     * Records where taint objects are introduced if option
+     * "taint-provenance" is true, otherwise null.
+     */
+    private final TaintProvenance provenance;
+
     public TaintAnalysiss(Solver solver) {
         manager = new TaintManager();
         this.solver = solver;
         csManager = solver.getCSManager();
         emptyContext = solver.getContextSelector().getEmptyContext();
-        config = TaintConfig.readConfig(
-                solver.getOptions().getString("taint-config"),
+        List<String> paths = getConfigPaths(solver.getOptions().get("taint-config"));
+        if (paths.size() == 1) {
+            config = readConfig(paths.get(0));
+        } else {
+            for (String path : paths) {
+                String pack = getPackName(path);
+                if (packs.put(pack, readConfig(path)) != null) {
+                    throw new ConfigException("Duplicate taint rule pack: " + pack);
+                }
+            }
+            config = TaintConfig.merge(packs.values());
+        }
+        slice = solver.getOptions().getBooleanOrDefault("taint-slice", false) ?
+                TaintSlice.compute(new CHABuilder().build(), config) : null;
+        provenance = solver.getOptions().getBooleanOrDefault("taint-provenance", false) ?
+                new TaintProvenance() : null;
+    }
+
+    /**
+     * Lets this taint analysis report to solver, which continues from
+     * the state of the solver this taint analysis was created for.
+     */
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * @return the paths of taint configuration files given by option
+     * "taint-config", which is either a path or a list of paths.
+     */
+    private static List<String> getConfigPaths(Object option) {
+        if (option instanceof List<?> list && !list.isEmpty()) {
+            return list.stream().map(Object::toString).toList();
+        } else if (option instanceof String path) {
+            return List.of(path);
+        }
+        throw new ConfigException("Invalid value of option 'taint-config': " + option);
+    }
+
+    /**
+     * @return the name of the rule pack given by a configuration file,
+     * i.e., the file name without extension.
+     */
+    private static String getPackName(String path) {
+        String name = Path.of(path).getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static TaintConfig readConfig(String path) {
+        TaintConfig config = TaintConfig.readConfig(path,
                 World.get().getClassHierarchy(),
                 World.get().getTypeSystem());
         logger.info(config);
+        return config;
+    }
+
+    /**
+     * @return true if given object is a taint object, otherwise false.
+     */
+    public boolean isTaint(CSObj obj) {
+        return manager.isTaint(obj.getObject());
+    }
+
+    /**
+     * @return true if calls to given method may transfer taints,
+     * otherwise false. Calls to other methods need no taint handling.
+     */
+    public boolean isTransfer(JMethod method) {
+        return config.getRuleIndex().get(method).isTransfer();
+    }
+
+    /**
+     * Makes the taint objects for a call to a source method. With multiple
+     * rule packs, each pack that has callee as a source makes its own
+     * taint objects, which are tagged with the pack, so that the flows
+     * of the packs can be told apart (see {@link #groupByPack}).
+     *
+     * @param callSite the call site of a source method
+     * @param callee   the callee of callSite
+     * @return the taint objects which flow to the result of callSite,
+     * or an empty list if callee is not a source.
+     */
+    public List<CSObj> makeTaints(Invoke callSite, JMethod callee) {
+        if (!config.getRuleIndex().get(callee).isSource()) {
+            return List.of();
+        }
+        List<CSObj> taints = new ArrayList<>();
+        if (packs.isEmpty()) {
+            for (Type type : config.getRuleIndex().get(callee).sourceTypes) {
+                taints.add(csManager.getCSObj(emptyContext,
+                        manager.makeTaint(callSite, type)));
+            }
+        } else {
+            // the merged configuration loses the packs of the sources,
+            // thus the rules of each pack are consulted
+            packs.forEach((pack, packConfig) -> {
+                for (Type type : packConfig.getRuleIndex().get(callee).sourceTypes) {
+                    taints.add(csManager.getCSObj(emptyContext,
+                            manager.makeTaint(pack, callSite, type)));
+                }
+            });
+        }
+        return taints;
+    }
+
+    /**
+     * @return true if given method needs to be analyzed, i.e., option
+     * "taint-slice" is false, or the method is in the taint slice
+     * (see {@link TaintSlice}). Methods out of the slice are
+     * not analyzed by the solver even if they are reachable.
+     */
+    public boolean isInSlice(JMethod method) {
+        return slice == null || slice.contains(method);
+    }
+
+    /**
+     * Filters out the taint objects in given points-to set, which were
+     * newly propagated to a variable. Taint objects are only relevant
+     * to taint transfers and sinks, thus the solver does not need to
+     * process field/array accesses and instance calls on the variable
+     * for them.
+     *
+     * @return the objects in pointsToSet that are not taint objects.
+     * If pointsToSet contains no taint objects, it is returned as is.
+     */
+    public PointsToSet removeTaints(PointsToSet pointsToSet) {
+        if (pointsToSet.objects().noneMatch(this::isTaint)) {
+            return pointsToSet;
+        }
+        PointsToSet others = PointsToSetFactory.make();
+        pointsToSet.objects()
+                .filter(obj -> !isTaint(obj))
+                .forEach(others::addObject);
+        return others;
     }
 
-    // TODO - finish me
+    /**
+     * Adds a call edge to a taint-transfer method, so that the taint
+     * objects pointed to by the "from" variables of the transfers
+     * (base or arguments) are transferred at the call from now on.
+     *
+     * @return the transfers of the taint objects that the "from"
+     * variables already point to.
+     */
+    public List<Transfer> addTransferEdge(Edge<CSCallSite, CSMethod> edge) {
+        List<Transfer> transfers = new ArrayList<>();
+        TaintRuleIndex.Rules rules = config.getRuleIndex()
+                .get(edge.getCallee().getMethod());
+        for (int i = 0; i < rules.transferFroms.length; ++i) {
+            CSVar from = getVar(edge.getCallSite(), rules.transferFroms[i]);
+            if (from != null) {
+                transferEdges.put(from, edge);
+                transfer(edge, rules, i, from, from.getPointsToSet(), transfers);
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * Removes a call edge added by {@link #addTransferEdge}, e.g.,
+     * after it is removed from the call graph by the solver.
+     */
+    public void removeTransferEdge(Edge<CSCallSite, CSMethod> edge) {
+        TaintRuleIndex.Rules rules = config.getRuleIndex()
+                .get(edge.getCallee().getMethod());
+        for (int from : rules.transferFroms) {
+            CSVar csVar = getVar(edge.getCallSite(), from);
+            if (csVar != null) {
+                transferEdges.remove(csVar, edge);
+            }
+        }
+    }
+
+    /**
+     * @return the transfers of the taint objects in pointsToSet, which
+     * were newly propagated to csVar, at the taint-transfer calls that
+     * transfer taints from csVar.
+     */
+    public List<Transfer> transferTaints(CSVar csVar, PointsToSet pointsToSet) {
+        Set<Edge<CSCallSite, CSMethod>> edges = transferEdges.get(csVar);
+        if (edges.isEmpty()) {
+            return List.of();
+        }
+        List<Transfer> transfers = new ArrayList<>();
+        for (Edge<CSCallSite, CSMethod> edge : edges) {
+            TaintRuleIndex.Rules rules = config.getRuleIndex()
+                    .get(edge.getCallee().getMethod());
+            for (int i = 0; i < rules.transferFroms.length; ++i) {
+                if (csVar.equals(getVar(edge.getCallSite(), rules.transferFroms[i]))) {
+                    transfer(edge, rules, i, csVar, pointsToSet, transfers);
+                }
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * Transfers the taint objects in pointsToSet of from by the i-th
+     * transfer of rules at the call site of edge. A transferred taint
+     * object keeps the source call and the rule pack of the original one.
+     */
+    private void transfer(Edge<CSCallSite, CSMethod> edge,
+                          TaintRuleIndex.Rules rules, int i, CSVar from,
+                          PointsToSet pointsToSet, List<Transfer> transfers) {
+        CSVar to = getVar(edge.getCallSite(), rules.transferTos[i]);
+        if (to == null) {
+            return;
+        }
+        Invoke call = edge.getCallSite().getCallSite();
+        for (CSObj obj : pointsToSet) {
+            if (isTaint(obj)) {
+                Obj taint = manager.makeTaint(manager.getPack(obj.getObject()),
+                        manager.getSourceCall(obj.getObject()),
+                        rules.transferTypes[i]);
+                transfers.add(new Transfer(from, obj, to,
+                        csManager.getCSObj(emptyContext, taint), call));
+            }
+        }
+    }
+
+    /**
+     * @return the variable at given index of the call site, i.e., the base
+     * variable, the result variable or an argument (see {@link TaintTransfer}),
+     * or null if the call site has no such variable.
+     */
+    private CSVar getVar(CSCallSite csCallSite, int index) {
+        Invoke callSite = csCallSite.getCallSite();
+        Var var = switch (index) {
+            case TaintTransfer.BASE ->
+                    callSite.getInvokeExp() instanceof InvokeInstanceExp invokeExp ?
+                            invokeExp.getBase() : null;
+            case TaintTransfer.RESULT -> callSite.getLValue();
+            default -> callSite.getInvokeExp().getArg(index);
+        };
+        return var != null ?
+                csManager.getCSVar(csCallSite.getContext(), var) : null;
+    }
+
+    /**
+     * Clears the taint provenance of given pointers, whose points-to sets
+     * have been cleared by the solver.
+     */
+    public void clearProvenance(Collection<? extends Pointer> pointers) {
+        if (provenance != null) {
+            pointers.forEach(provenance::remove);
+        }
+    }
+
+    /**
+     * Records that taint is made by its source call and flows to result,
+     * i.e., the result variable of the call, if option "taint-provenance"
+     * is true.
+     */
+    public void recordSource(Pointer result, CSObj taint) {
+        if (provenance != null) {
+            provenance.addSource(result, taint,
+                    manager.getSourceCall(taint.getObject()));
+        }
+    }
+
+    /**
+     * Records that from (pointed to by source) is transferred to taint
+     * (pointed to by target) by given taint-transfer call, if option
+     * "taint-provenance" is true.
+     */
+    public void recordTransfer(Pointer source, CSObj from,
+                               Pointer target, CSObj taint, Invoke call) {
+        if (provenance != null) {
+            provenance.addTransfer(source, from, target, taint, call);
+        }
+    }
 
     public void onFinish() {
         Set<TaintFlow> taintFlows = collectTaintFlows();
         solver.getResult().storeResult(getClass().getName(), taintFlows);
+        if (provenance != null) {
+            solver.getResult().storeResult(WITNESSES,
+                    collectWitnesses(taintFlows));
+        }
+        if (!packs.isEmpty()) {
+            solver.getResult().storeResult(PACK_FLOWS,
+                    groupByPack(taintFlows));
+        }
+    }
+
+    /**
+     * Groups taint flows by rule packs. A flow belongs to a pack if the
+     * sink argument points to a taint object of the pack made by the
+     * source call, and a callee of the sink call is a sink of the pack.
+     *
+     * @return map from names of rule packs to their taint flows.
+     */
+    private Map<String, Set<TaintFlow>> groupByPack(Set<TaintFlow> taintFlows) {
+        Map<String, Set<TaintFlow>> pack2Flows = new LinkedHashMap<>();
+        packs.keySet().forEach(pack -> pack2Flows.put(pack, new TreeSet<>()));
+        CallGraph<Invoke, JMethod> callGraph = solver.getResult().getCallGraph();
+        for (TaintFlow flow : taintFlows) {
+            Set<JMethod> callees = callGraph.getCalleesOf(flow.sinkCall());
+            getSinkArgs(flow)
+                    .flatMap(csArg -> getSourceTaints(csArg, flow))
+                    .map(taint -> manager.getPack(taint.getObject()))
+                    .filter(pack -> pack != null && callees.stream().anyMatch(
+                            callee -> packs.get(pack).getRuleIndex()
+                                    .get(callee).isSink(flow.index())))
+                    .forEach(pack -> pack2Flows.get(pack).add(flow));
+        }
+        return pack2Flows;
+    }
+
+    /**
+     * @return the context-sensitive variables of the sink argument of flow.
+     */
+    private Stream<CSVar> getSinkArgs(TaintFlow flow) {
+        Var arg = flow.sinkCall().getInvokeExp().getArg(flow.index());
+        return csManager.getCSVarsOf(arg).stream();
+    }
+
+    /**
+     * @return the taint objects pointed to by csArg that are made
+     * by the source call of flow.
+     */
+    private Stream<CSObj> getSourceTaints(CSVar csArg, TaintFlow flow) {
+        return csArg.getPointsToSet()
+                .objects()
+                .filter(this::isTaint)
+                .filter(taint -> manager.getSourceCall(
+                        taint.getObject()).equals(flow.sourceCall()));
+    }
+
+    /**
+     * @return a witness of each taint flow, which is the shortest of
+     * the paths (see {@link TaintProvenance#getPath}) of the taint
+     * objects at the sink arguments.
+     */
+    private List<TaintWitness> collectWitnesses(Set<TaintFlow> taintFlows) {
+        List<TaintWitness> witnesses = new ArrayList<>();
+        for (TaintFlow flow : taintFlows) {
+            getSinkArgs(flow)
+                    .flatMap(csArg -> getSourceTaints(csArg, flow)
+                            .map(taint -> provenance.getPath(csArg, taint,
+                                    flow.sourceCall(), solver::getSuccsOf)))
+                    .filter(path -> !path.isEmpty())
+                    .min(Comparator.comparingInt(List::size))
+                    .ifPresent(path -> witnesses.add(new TaintWitness(flow, path)));
+        }
+        return witnesses;
     }
 
     private Set<TaintFlow> collectTaintFlows() {
         Set<TaintFlow> taintFlows = new TreeSet<>();
         PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
+        result.getCallGraph().edges().forEach(edge -> {
+            Invoke sinkCall = edge.getCallSite();
+            for (int i : config.getRuleIndex().get(edge.getCallee()).sinkIndexes) {
+                Var arg = sinkCall.getInvokeExp().getArg(i);
+                for (Obj obj : result.getPointsToSet(arg)) {
+                    if (manager.isTaint(obj)) {
+                        taintFlows.add(new TaintFlow(
+                                manager.getSourceCall(obj), sinkCall, i));
+                    }
+                }
+            }
+        });
         return taintFlows;
     }
+
+    /**
+     * A taint object transferred by a taint-transfer call.
+     *
+     * @param source the "from" variable of the transfer
+     * @param from   the taint object pointed to by source
+     * @param target the "to" variable of the transfer
+     * @param taint  the transferred taint object, which flows to target
+     * @param call   the taint-transfer call
+     */
+    public record Transfer(CSVar source, CSObj from,
+                           CSVar target, CSObj taint, Invoke call) {
+    }
 }
@@ -35,6 +35,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.config.ConfigException;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
@@ -42,8 +43,10 @@ import pascal.taie.util.collection.Sets;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * Configuration for taint analysis.
@@ -67,11 +70,17 @@ class TaintConfig {
      */
     private final Set<TaintTransfer> transfers;
 
+    /**
+     * Compiled index of the sources, sinks and transfers.
+     */
+    private final TaintRuleIndex ruleIndex;
+
     private TaintConfig(Set<Source> sources, Set<Sink> sinks,
                         Set<TaintTransfer> transfers) {
         this.sources = sources;
         this.sinks = sinks;
         this.transfers = transfers;
+        this.ruleIndex = new TaintRuleIndex(sources, sinks, transfers);
     }
 
     /**
@@ -98,6 +107,28 @@ class TaintConfig {
         }
     }
 
+    /**
+     * Merges multiple configurations into one, which contains all
+     * the sources, sinks and taint transfers in given configurations.
+     * The rules shared by several configurations are kept once, thus
+     * the merged configuration cannot tell which configurations a rule
+     * comes from, and the configurations themselves should be consulted
+     * for that.
+     */
+    static TaintConfig merge(Collection<TaintConfig> configs) {
+        Set<Source> sources = Sets.newSet();
+        Set<Sink> sinks = Sets.newSet();
+        Set<TaintTransfer> transfers = Sets.newSet();
+        for (TaintConfig config : configs) {
+            sources.addAll(config.sources);
+            sinks.addAll(config.sinks);
+            transfers.addAll(config.transfers);
+        }
+        return new TaintConfig(Collections.unmodifiableSet(sources),
+                Collections.unmodifiableSet(sinks),
+                Collections.unmodifiableSet(transfers));
+    }
+
     /**
      * @return sources in the configuration.
      */
@@ -119,6 +150,13 @@ class TaintConfig {
         return transfers;
     }
 
+    /**
+     * @return the compiled index of the rules in the configuration.
+     */
+    TaintRuleIndex getRuleIndex() {
+        return ruleIndex;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("TaintConfig:");
@@ -176,16 +214,12 @@ class TaintConfig {
             if (node instanceof ArrayNode arrayNode) {
                 Set<Source> sources = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
-                    String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
-                        // if the method (given in config file) is absent in
-                        // the class hierarchy, just ignore it.
+                    Set<JMethod> methods = resolveMethods(elem, "source");
+                    if (!methods.isEmpty()) {
                         Type type = typeSystem.getType(
                                 elem.get("type").asText());
-                        sources.add(new Source(method, type));
-                    } else {
-                        logger.warn("Cannot find source method '{}'", methodSig);
+                        methods.forEach(method ->
+                                sources.add(new Source(method, type)));
                     }
                 }
                 return Collections.unmodifiableSet(sources);
@@ -206,16 +240,9 @@ class TaintConfig {
             if (node instanceof ArrayNode arrayNode) {
                 Set<Sink> sinks = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
-                    String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
-                        // if the method (given in config file) is absent in
-                        // the class hierarchy, just ignore it.
-                        int index = elem.get("index").asInt();
-                        sinks.add(new Sink(method, index));
-                    } else {
-                        logger.warn("Cannot find sink method '{}'", methodSig);
-                    }
+                    int index = elem.get("index").asInt();
+                    resolveMethods(elem, "sink").forEach(method ->
+                            sinks.add(new Sink(method, index)));
                 }
                 return Collections.unmodifiableSet(sinks);
             } else {
@@ -235,18 +262,14 @@ class TaintConfig {
             if (node instanceof ArrayNode arrayNode) {
                 Set<TaintTransfer> transfers = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
-                    String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
-                        // if the method (given in config file) is absent in
-                        // the class hierarchy, just ignore it.
+                    Set<JMethod> methods = resolveMethods(elem, "taint-transfer");
+                    if (!methods.isEmpty()) {
                         int from = TaintTransfer.toInt(elem.get("from").asText());
                         int to = TaintTransfer.toInt(elem.get("to").asText());
                         Type type = typeSystem.getType(
                                 elem.get("type").asText());
-                        transfers.add(new TaintTransfer(method, from, to, type));
-                    } else {
-                        logger.warn("Cannot find taint-transfer method '{}'", methodSig);
+                        methods.forEach(method -> transfers.add(
+                                new TaintTransfer(method, from, to, type)));
                     }
                 }
                 return Collections.unmodifiableSet(transfers);
@@ -255,5 +278,62 @@ class TaintConfig {
                 return Set.of();
             }
         }
+    
+        /**
+         * Resolves the methods given by a rule. The subsignature in the
+         * signature may contain "*", which matches any characters, e.g.,
+         * "<java.sql.Statement: * execute*(java.lang.String)>" matches all
+         * declared methods of the class whose names start with "execute"
+         * and which take one String parameter, with any return type.
+         * The parameter list is matched as given, thus "()" only matches
+         * methods without parameters, and "(*)" matches any parameters.
+         * If the rule sets "subtypes: true", the methods of the subclasses
+         * (and implementors) of the class that override the matched
+         * methods are also included. If no method (given in config file)
+         * is found in the class hierarchy, the rule is just ignored.
+         *
+         * @param elem the node of the rule
+         * @param kind kind of the rule, used for warning
+         * @return the resolved methods
+         */
+        private Set<JMethod> resolveMethods(JsonNode elem, String kind) {
+            String methodSig = elem.get("method").asText();
+            Set<JMethod> methods = Sets.newSet();
+            if (methodSig.contains("*")) {
+                int colon = methodSig.indexOf(':');
+                String className = methodSig.substring(1, colon);
+                String subsignature = methodSig.substring(
+                        colon + 2, methodSig.length() - 1);
+                Pattern pattern = Pattern.compile(
+                        ("\\Q" + subsignature + "\\E").replace("*", "\\E.*\\Q"));
+                JClass jclass = hierarchy.getClass(className);
+                if (jclass != null) {
+                    jclass.getDeclaredMethods()
+                            .stream()
+                            .filter(m -> pattern.matcher(
+                                    m.getSubsignature().toString()).matches())
+                            .forEach(methods::add);
+                }
+            } else {
+                JMethod method = hierarchy.getMethod(methodSig);
+                if (method != null) {
+                    methods.add(method);
+                }
+            }
+            JsonNode subtypes = elem.get("subtypes");
+            if (subtypes != null && subtypes.asBoolean()) {
+                for (JMethod method : Set.copyOf(methods)) {
+                    hierarchy.getAllSubclassesOf(method.getDeclaringClass(), false)
+                            .stream()
+                            .map(c -> c.getDeclaredMethod(method.getSubsignature()))
+                            .filter(m -> m != null && !m.isAbstract())
+                            .forEach(methods::add);
+                }
+            }
+            if (methods.isEmpty()) {
+                logger.warn("Cannot find {} method '{}'", kind, methodSig);
+            }
+            return methods;
+        }
     }
 }
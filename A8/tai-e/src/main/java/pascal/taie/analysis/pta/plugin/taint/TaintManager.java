@@ -30,15 +30,25 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.Map;
+
 /**
- * Manages taint objects.
+ * Manages taint objects. The taint objects of a rule pack are tagged
+ * with the name of the pack in their descriptions.
  */
 class TaintManager {
 
     private static final String TAINT_DESC = "TaintObj";
 
+    /**
+     * Separator between {@link #TAINT_DESC} and the name of rule pack.
+     */
+    private static final String PACK_SEP = ":";
+
     private final TwoKeyMap<Invoke, Type, Obj> taints = Maps.newTwoKeyMap();
 
+    private final Map<String, TwoKeyMap<Invoke, Type, Obj>> packTaints = Maps.newMap();
+
     /**
      * Makes a taint object for given source and type.
      *
@@ -51,12 +61,48 @@ class TaintManager {
                 (s, t) -> new MockObj(TAINT_DESC, s, t));
     }
 
+    /**
+     * Makes a taint object of given rule pack for given source and type.
+     *
+     * @param pack   name of the rule pack, or null if there is
+     *               only one configuration
+     * @param source invocation to the source method, i.e., source call
+     * @param type   type of the taint object
+     * @return the taint object for given pack, source and type.
+     */
+    Obj makeTaint(String pack, Invoke source, Type type) {
+        if (pack == null) {
+            return makeTaint(source, type);
+        }
+        return packTaints.computeIfAbsent(pack, p -> Maps.newTwoKeyMap())
+                .computeIfAbsent(source, type,
+                        (s, t) -> new MockObj(TAINT_DESC + PACK_SEP + pack, s, t));
+    }
+
     /**
      * @return true if given obj represents a taint object, otherwise false.
      */
     boolean isTaint(Obj obj) {
-        return obj instanceof MockObj &&
-                ((MockObj) obj).getDescription().equals(TAINT_DESC);
+        if (obj instanceof MockObj mockObj) {
+            String desc = mockObj.getDescription();
+            return desc.equals(TAINT_DESC) ||
+                    desc.startsWith(TAINT_DESC + PACK_SEP);
+        }
+        return false;
+    }
+
+    /**
+     * @return the name of rule pack of given taint object, or null if
+     * the taint object does not belong to any pack.
+     * @throws AnalysisException if given object is not a taint object.
+     */
+    String getPack(Obj obj) {
+        if (isTaint(obj)) {
+            String desc = ((MockObj) obj).getDescription();
+            return desc.length() > TAINT_DESC.length() ?
+                    desc.substring(TAINT_DESC.length() + PACK_SEP.length()) : null;
+        }
+        throw new AnalysisException(obj + " is not a taint object");
     }
 
     /**
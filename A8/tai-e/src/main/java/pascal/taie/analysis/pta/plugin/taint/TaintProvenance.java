@@ -0,0 +1,184 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Records where taint objects are introduced, i.e., by source calls and
+ * taint-transfer calls, so that the path of a taint flow can be computed
+ * on demand.
+ * <p>
+ * The flows of taint objects along PFG edges are not recorded, as they
+ * are available from the PFG and the points-to sets after the analysis.
+ * Thus the memory grows only with the number of taint objects made at
+ * source and transfer calls, and {@link #getPath} finds the shortest
+ * path by a breadth-first search from the sources of a taint object.
+ */
+class TaintProvenance {
+
+    /**
+     * Map from a pointer to the taint objects introduced to it
+     * by source calls.
+     */
+    private final MultiMap<Pointer, Arrival> sources = Maps.newMultiMap();
+
+    /**
+     * Map from a pointer to the taint objects transferred from
+     * the taint objects it points to.
+     */
+    private final MultiMap<Pointer, Transfer> transfers = Maps.newMultiMap();
+
+    /**
+     * Records that taint is introduced to pointer by its source call.
+     */
+    void addSource(Pointer pointer, CSObj taint, Invoke sourceCall) {
+        sources.put(pointer, new Arrival(taint, sourceCall));
+    }
+
+    /**
+     * Records that from (pointed to by source) is transferred to
+     * taint pointed to by target at given taint-transfer call.
+     */
+    void addTransfer(Pointer source, CSObj from,
+                     Pointer target, CSObj taint, Invoke call) {
+        transfers.put(source, new Transfer(from, target, taint, call));
+    }
+
+    /**
+     * Removes the records of given pointer, e.g., after its points-to
+     * set is cleared.
+     */
+    void remove(Pointer pointer) {
+        sources.removeAll(pointer);
+        transfers.removeAll(pointer);
+    }
+
+    /**
+     * Computes the shortest path along which taint arrives at given
+     * pointer. The search starts from the pointers to which the taint
+     * objects of sourceCall were introduced, and follows the PFG edges
+     * to the pointers that point to the taint objects, and the recorded
+     * transfers.
+     *
+     * @param sourceCall the source call of taint
+     * @param succs      gives the successors of a pointer in the PFG
+     * @return the steps of the path, starting from the pointer where the
+     * taint was introduced by sourceCall, or an empty list if taint does
+     * not arrive at given pointer.
+     */
+    List<TaintWitness.Step> getPath(Pointer pointer, CSObj taint, Invoke sourceCall,
+                                    Function<Pointer, Set<Pointer>> succs) {
+        // map from each visited node to how it was first reached
+        Map<Node, Edge> visited = Maps.newMap();
+        Deque<Node> queue = new ArrayDeque<>();
+        sources.forEach((p, arrival) -> {
+            if (arrival.call().equals(sourceCall)) {
+                visit(new Node(p, arrival.taint()),
+                        new Edge(null, sourceCall), visited, queue);
+            }
+        });
+        Node target = new Node(pointer, taint);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            if (node.equals(target)) {
+                return toPath(node, visited);
+            }
+            for (Pointer succ : succs.apply(node.pointer())) {
+                visit(new Node(succ, node.taint()),
+                        new Edge(node, null), visited, queue);
+            }
+            for (Transfer transfer : transfers.get(node.pointer())) {
+                if (transfer.from().equals(node.taint())) {
+                    visit(new Node(transfer.target(), transfer.taint()),
+                            new Edge(node, transfer.call()), visited, queue);
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private static void visit(Node node, Edge edge,
+                              Map<Node, Edge> visited, Deque<Node> queue) {
+        // records of removed pointers may lead to pointers which do not
+        // point to the taint object (any more), which are skipped
+        if (node.pointer().getPointsToSet().contains(node.taint())
+                && visited.putIfAbsent(node, edge) == null) {
+            queue.add(node);
+        }
+    }
+
+    private static List<TaintWitness.Step> toPath(
+            Node node, Map<Node, Edge> visited) {
+        List<TaintWitness.Step> path = new ArrayList<>();
+        for (Node n = node; n != null; ) {
+            Edge edge = visited.get(n);
+            path.add(new TaintWitness.Step(n.pointer(), edge.call()));
+            n = edge.parent();
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Taint object introduced by a source or taint-transfer call.
+     */
+    private record Arrival(CSObj taint, Invoke call) {
+    }
+
+    /**
+     * Transfer of taint object from to taint pointed to by target.
+     */
+    private record Transfer(CSObj from, Pointer target, CSObj taint, Invoke call) {
+    }
+
+    /**
+     * Node of the search, i.e., a taint object pointed to by a pointer.
+     */
+    private record Node(Pointer pointer, CSObj taint) {
+    }
+
+    /**
+     * How a node is reached in the search.
+     *
+     * @param parent the node from which the node is reached,
+     *               or null if the taint is made by the source call.
+     * @param call   the source or taint-transfer call that makes the
+     *               taint, or null if it is reached along a PFG edge.
+     */
+    private record Edge(Node parent, Invoke call) {
+    }
+}
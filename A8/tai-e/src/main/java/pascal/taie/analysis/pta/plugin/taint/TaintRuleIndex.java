@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled index of taint rules, which maps each method to arrays
+ * of its source types, sink indexes and taint transfers, so that
+ * matching a call site against the rules takes one map lookup.
+ */
+class TaintRuleIndex {
+
+    private final Map<JMethod, Rules> method2Rules = Maps.newMap();
+
+    TaintRuleIndex(Set<Source> sources, Set<Sink> sinks,
+                   Set<TaintTransfer> transfers) {
+        MultiMap<JMethod, Source> method2Sources = Maps.newMultiMap();
+        sources.forEach(s -> method2Sources.put(s.method(), s));
+        MultiMap<JMethod, Sink> method2Sinks = Maps.newMultiMap();
+        sinks.forEach(s -> method2Sinks.put(s.method(), s));
+        MultiMap<JMethod, TaintTransfer> method2Transfers = Maps.newMultiMap();
+        transfers.forEach(t -> method2Transfers.put(t.method(), t));
+        Set<JMethod> methods = Sets.newSet();
+        methods.addAll(method2Sources.keySet());
+        methods.addAll(method2Sinks.keySet());
+        methods.addAll(method2Transfers.keySet());
+        for (JMethod method : methods) {
+            method2Rules.put(method, new Rules(method2Sources.get(method),
+                    method2Sinks.get(method), method2Transfers.get(method)));
+        }
+    }
+
+    /**
+     * @return the rules of given method. If the method has no rules,
+     * returns {@link Rules#EMPTY}.
+     */
+    Rules get(JMethod method) {
+        return method2Rules.getOrDefault(method, Rules.EMPTY);
+    }
+
+    /**
+     * Rules of a method. The i-th transfer is from
+     * {@code transferFroms[i]} to {@code transferTos[i]}
+     * with type {@code transferTypes[i]}.
+     */
+    static final class Rules {
+
+        static final Rules EMPTY = new Rules(Set.of(), Set.of(), Set.of());
+
+        /**
+         * Types of the taint objects made by calls to the method.
+         */
+        final Type[] sourceTypes;
+
+        /**
+         * Indexes of the sink arguments of the method.
+         */
+        final int[] sinkIndexes;
+
+        final int[] transferFroms;
+
+        final int[] transferTos;
+
+        final Type[] transferTypes;
+
+        private Rules(Set<Source> sources, Set<Sink> sinks,
+                      Set<TaintTransfer> transfers) {
+            sourceTypes = sources.stream()
+                    .map(Source::type)
+                    .toArray(Type[]::new);
+            sinkIndexes = sinks.stream()
+                    .mapToInt(Sink::index)
+                    .toArray();
+            TaintTransfer[] ts = transfers.toArray(new TaintTransfer[0]);
+            transferFroms = new int[ts.length];
+            transferTos = new int[ts.length];
+            transferTypes = new Type[ts.length];
+            for (int i = 0; i < ts.length; ++i) {
+                transferFroms[i] = ts[i].from();
+                transferTos[i] = ts[i].to();
+                transferTypes[i] = ts[i].type();
+            }
+        }
+
+        boolean isSource() {
+            return sourceTypes.length > 0;
+        }
+
+        boolean isSink() {
+            return sinkIndexes.length > 0;
+        }
+
+        /**
+         * @return true if the index-th argument of the method is a sink.
+         */
+        boolean isSink(int index) {
+            for (int sinkIndex : sinkIndexes) {
+                if (sinkIndex == index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isTransfer() {
+            return transferTypes.length > 0;
+        }
+    }
+}
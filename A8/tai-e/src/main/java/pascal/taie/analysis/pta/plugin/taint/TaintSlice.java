@@ -0,0 +1,151 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Computes the methods relevant to taint flows on a (cheap) call graph,
+ * so that context-sensitive propagation can be restricted to them.
+ * <p>
+ * A taint flow starts at a call to a source method, returns through
+ * (transitive) callers of the method containing that call, and then goes
+ * down through callees into the method that calls a sink method. Thus
+ * the core of the slice consists of the methods that transitively call
+ * sources, and of the methods that are reachable from them and
+ * transitively call sinks. On its way, a taint may also pass through
+ * callees of the core methods, e.g., {@code y = id(x)}, which call
+ * neither sources nor sinks. Hence the slice also includes the methods
+ * that are transitively called by the core methods and may pass
+ * a reference from their arguments (or receivers) to their results
+ * (or receivers, or other arguments), judged by their signatures.
+ * Flows that involve other methods are missed, e.g., a taint stored
+ * to a static field by a method which takes no other arguments.
+ */
+class TaintSlice {
+
+    private static final Logger logger = LogManager.getLogger(TaintSlice.class);
+
+    private TaintSlice() {
+    }
+
+    /**
+     * @return the methods relevant to the sources and sinks in config.
+     */
+    static Set<JMethod> compute(CallGraph<Invoke, JMethod> callGraph,
+                                TaintConfig config) {
+        Set<JMethod> sourceCallers = backward(callGraph,
+                getCallers(callGraph, config.getSources()
+                        .stream().map(Source::method)));
+        Set<JMethod> sinkCallers = backward(callGraph,
+                getCallers(callGraph, config.getSinks()
+                        .stream().map(Sink::method)));
+        Set<JMethod> core = Sets.newSet();
+        core.addAll(sourceCallers);
+        reach(sourceCallers, callGraph::getCalleesOfM)
+                .stream()
+                .filter(sinkCallers::contains)
+                .forEach(core::add);
+        Set<JMethod> slice = reach(core, m -> callGraph.getCalleesOfM(m)
+                .stream()
+                .filter(TaintSlice::mayPassThrough)
+                .toList());
+        logger.info("Taint slice: {} of {} reachable methods",
+                slice.size(), callGraph.getNumberOfMethods());
+        return Collections.unmodifiableSet(slice);
+    }
+
+    /**
+     * @return true if a taint may pass through calls to given method,
+     * i.e., it has a reference-typed input (argument or receiver) and
+     * a different reference-typed output (result, receiver or argument).
+     */
+    private static boolean mayPassThrough(JMethod method) {
+        long refParams = method.getParamTypes()
+                .stream()
+                .filter(t -> t instanceof ReferenceType)
+                .count();
+        boolean refReturn = method.getReturnType() instanceof ReferenceType;
+        return method.isStatic() ?
+                refParams > 0 && (refReturn || refParams > 1) :
+                refParams > 0 || refReturn;
+    }
+
+    /**
+     * @return the methods that contain calls to given methods.
+     */
+    private static Set<JMethod> getCallers(
+            CallGraph<Invoke, JMethod> callGraph, Stream<JMethod> methods) {
+        Set<JMethod> callers = Sets.newSet();
+        methods.filter(callGraph::contains)
+                .flatMap(m -> callGraph.getCallersOf(m).stream())
+                .map(callGraph::getContainerOf)
+                .forEach(callers::add);
+        return callers;
+    }
+
+    /**
+     * @return given methods and the methods that transitively call them.
+     */
+    private static Set<JMethod> backward(
+            CallGraph<Invoke, JMethod> callGraph, Set<JMethod> methods) {
+        return reach(methods, m -> callGraph.getCallersOf(m)
+                .stream()
+                .map(callGraph::getContainerOf)
+                .toList());
+    }
+
+    /**
+     * @return the methods reachable from given methods via successors,
+     * including given methods.
+     */
+    private static Set<JMethod> reach(
+            Set<JMethod> methods,
+            Function<JMethod, Collection<JMethod>> successors) {
+        Set<JMethod> reached = Sets.newSet();
+        reached.addAll(methods);
+        Queue<JMethod> workList = new ArrayDeque<>(methods);
+        while (!workList.isEmpty()) {
+            for (JMethod succ : successors.apply(workList.poll())) {
+                if (reached.add(succ)) {
+                    workList.add(succ);
+                }
+            }
+        }
+        return reached;
+    }
+}
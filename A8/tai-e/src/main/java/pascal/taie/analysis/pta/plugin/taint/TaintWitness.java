@@ -0,0 +1,62 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.ir.stmt.Invoke;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Witness of a taint flow, i.e., the steps along which the taint
+ * object flows from the result of the source call to the argument
+ * of the sink call.
+ */
+public record TaintWitness(TaintFlow flow, List<Step> path) {
+
+    @Override
+    public String toString() {
+        return flow + ": " + path.stream()
+                .map(Step::toString)
+                .collect(Collectors.joining(" -> "));
+    }
+
+    /**
+     * A step of the witness, i.e., a pointer that the taint object
+     * arrives at.
+     *
+     * @param pointer the pointer
+     * @param call    the source or taint-transfer call that makes the taint
+     *                object arrive at pointer, or null if it arrives along
+     *                the PFG edge from the previous pointer.
+     */
+    public record Step(Pointer pointer, Invoke call) {
+
+        @Override
+        public String toString() {
+            return call == null ? pointer.toString() :
+                    pointer + " (by " + call + ")";
+        }
+    }
+}
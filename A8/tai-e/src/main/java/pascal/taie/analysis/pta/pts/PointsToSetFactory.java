@@ -22,7 +22,10 @@
 
 package pascal.taie.analysis.pta.pts;
 
+import pascal.taie.World;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Set;
@@ -35,7 +38,48 @@ public class PointsToSetFactory {
 
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
+    /**
+     * Indexer of CS objects for bit-vector points-to sets.
+     * If it is null, points-to sets are backed by hybrid sets.
+     */
+    private static Indexer<CSObj> objIndexer;
+
+    static {
+        World.registerResetCallback(() -> objIndexer = null);
+    }
+
+    /**
+     * Configures the kind of points-to sets made by this factory.
+     * This should be called before any points-to sets are made.
+     *
+     * @param kind       kind of points-to sets, "hybrid" for hash-based
+     *                   hybrid sets, or "bit" for bit-vector sets.
+     *                   null means "hybrid".
+     * @param objIndexer the indexer of CS objects, used by bit-vector sets.
+     * @throws ConfigException if kind is unknown.
+     */
+    public static void setUp(String kind, Indexer<CSObj> objIndexer) {
+        if (kind == null || kind.equals("hybrid")) {
+            PointsToSetFactory.objIndexer = null;
+        } else if (kind.equals("bit")) {
+            PointsToSetFactory.objIndexer = objIndexer;
+        } else {
+            throw new ConfigException("Unknown points-to set kind: " + kind);
+        }
+    }
+
     public static PointsToSet make() {
+        return objIndexer != null ?
+                new BitPointsToSet(objIndexer) : makeHybrid();
+    }
+
+    /**
+     * Makes a points-to set backed by a hybrid set, regardless of the kind
+     * configured by {@link #setUp(String, Indexer)}. This is used for the
+     * points-to sets whose CS objects are not indexed by the configured
+     * indexer, e.g., those restored from stored results.
+     */
+    public static PointsToSet makeHybrid() {
         return new DelegatePointsToSet(setFactory.get());
     }
 
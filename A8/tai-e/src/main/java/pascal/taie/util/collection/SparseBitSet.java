@@ -0,0 +1,378 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sparse bit set. Only the non-zero 64-bit words are stored, together with
+ * their word indexes, in two parallel arrays sorted by word index.
+ * Set operations work word by word, so their cost is proportional to
+ * the number of non-zero words instead of the value of the largest bit.
+ */
+public class SparseBitSet {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private static final int[] EMPTY_KEYS = {};
+
+    private static final long[] EMPTY_WORDS = {};
+
+    /**
+     * Indexes of the stored words, in increasing order.
+     */
+    private int[] keys;
+
+    /**
+     * Stored words. words[i] holds the bits in [keys[i] * 64, keys[i] * 64 + 64).
+     */
+    private long[] words;
+
+    /**
+     * Number of stored words.
+     */
+    private int wordsInUse;
+
+    /**
+     * Number of set bits.
+     */
+    private int cardinality;
+
+    public SparseBitSet() {
+        keys = EMPTY_KEYS;
+        words = EMPTY_WORDS;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, wordsInUse, key);
+    }
+
+    /**
+     * Sets the bit at given index.
+     *
+     * @return true if the bit was previously clear, otherwise false.
+     */
+    public boolean set(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+        int key = wordIndex(bitIndex);
+        long mask = 1L << bitIndex;
+        int pos = find(key);
+        if (pos >= 0) {
+            if ((words[pos] & mask) != 0) {
+                return false;
+            }
+            words[pos] |= mask;
+        } else {
+            insertWord(-pos - 1, key, mask);
+        }
+        ++cardinality;
+        return true;
+    }
+
+    /**
+     * @return true if the bit at given index is set, otherwise false.
+     */
+    public boolean get(int bitIndex) {
+        if (bitIndex < 0) {
+            return false;
+        }
+        int pos = find(wordIndex(bitIndex));
+        return pos >= 0 && (words[pos] & (1L << bitIndex)) != 0;
+    }
+
+    /**
+     * Sets all bits that are set in given bit set.
+     *
+     * @return true if this bit set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean or(SparseBitSet other) {
+        return or(other, null);
+    }
+
+    /**
+     * Sets all bits that are set in given bit set, i.e., this |= other.
+     *
+     * @return a new bit set containing the bits that are set in other
+     * but were clear in this bit set before the call, i.e., other & ~this.
+     */
+    public SparseBitSet orDiff(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet();
+        or(other, diff);
+        return diff;
+    }
+
+    /**
+     * Core of {@link #or(SparseBitSet)} and {@link #orDiff(SparseBitSet)}.
+     *
+     * @param diff if not null, the newly-set bits are appended to it.
+     * @return true if this bit set changed as a result of the call,
+     * otherwise false.
+     */
+    private boolean or(SparseBitSet other, SparseBitSet diff) {
+        if (other.wordsInUse == 0 || other == this) {
+            return false;
+        }
+        // count the words of other that are absent in this bit set
+        int missing = 0;
+        for (int i = 0, j = 0; j < other.wordsInUse; ++j) {
+            int key = other.keys[j];
+            while (i < wordsInUse && keys[i] < key) {
+                ++i;
+            }
+            if (i == wordsInUse || keys[i] != key) {
+                ++missing;
+            }
+        }
+        boolean changed = false;
+        if (missing == 0) {
+            // update in place
+            for (int i = 0, j = 0; j < other.wordsInUse; ++j) {
+                int key = other.keys[j];
+                while (keys[i] != key) {
+                    ++i;
+                }
+                long newBits = other.words[j] & ~words[i];
+                if (newBits != 0) {
+                    words[i] |= newBits;
+                    cardinality += Long.bitCount(newBits);
+                    changed = true;
+                    if (diff != null) {
+                        diff.appendWord(key, newBits);
+                    }
+                }
+            }
+        } else {
+            // merge two sorted word arrays
+            int newSize = wordsInUse + missing;
+            int[] newKeys = new int[newSize];
+            long[] newWords = new long[newSize];
+            int i = 0, j = 0, k = 0;
+            while (i < wordsInUse || j < other.wordsInUse) {
+                if (j == other.wordsInUse ||
+                        (i < wordsInUse && keys[i] < other.keys[j])) {
+                    newKeys[k] = keys[i];
+                    newWords[k++] = words[i++];
+                } else {
+                    int key = other.keys[j];
+                    long word = i < wordsInUse && keys[i] == key ? words[i++] : 0L;
+                    long newBits = other.words[j++] & ~word;
+                    if (newBits != 0) {
+                        cardinality += Long.bitCount(newBits);
+                        if (diff != null) {
+                            diff.appendWord(key, newBits);
+                        }
+                    }
+                    newKeys[k] = key;
+                    newWords[k++] = word | newBits;
+                }
+            }
+            keys = newKeys;
+            words = newWords;
+            wordsInUse = newSize;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Clears all bits that are set in given bit set, i.e., this &= ~other.
+     *
+     * @return true if this bit set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean andNot(SparseBitSet other) {
+        boolean changed = false;
+        int k = 0;
+        for (int i = 0, j = 0; i < wordsInUse; ++i) {
+            int key = keys[i];
+            long word = words[i];
+            while (j < other.wordsInUse && other.keys[j] < key) {
+                ++j;
+            }
+            if (j < other.wordsInUse && other.keys[j] == key) {
+                long cleared = word & other.words[j];
+                if (cleared != 0) {
+                    word &= ~cleared;
+                    cardinality -= Long.bitCount(cleared);
+                    changed = true;
+                }
+            }
+            if (word != 0) {
+                keys[k] = key;
+                words[k++] = word;
+            }
+        }
+        wordsInUse = k;
+        return changed;
+    }
+
+    /**
+     * @return true if this bit set contains no set bits, otherwise false.
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * @return the number of set bits in this bit set.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return a copy of this bit set.
+     */
+    public SparseBitSet copy() {
+        SparseBitSet copy = new SparseBitSet();
+        copy.keys = Arrays.copyOf(keys, wordsInUse);
+        copy.words = Arrays.copyOf(words, wordsInUse);
+        copy.wordsInUse = wordsInUse;
+        copy.cardinality = cardinality;
+        return copy;
+    }
+
+    /**
+     * @return an iterator over the indexes of set bits, in increasing order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int pos = 0;
+
+            private long word = wordsInUse > 0 ? words[0] : 0L;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (++pos >= wordsInUse) {
+                        return false;
+                    }
+                    word = words[pos];
+                }
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return (keys[pos] << ADDRESS_BITS_PER_WORD) + bit;
+            }
+        };
+    }
+
+    /**
+     * @return a stream of the indexes of set bits, in increasing order.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(Spliterators.spliterator(iterator(),
+                cardinality, Spliterator.ORDERED | Spliterator.DISTINCT |
+                        Spliterator.SORTED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Appends a word whose key is larger than all stored keys.
+     */
+    private void appendWord(int key, long word) {
+        ensureCapacity(wordsInUse + 1);
+        keys[wordsInUse] = key;
+        words[wordsInUse++] = word;
+        cardinality += Long.bitCount(word);
+    }
+
+    private void insertWord(int pos, int key, long word) {
+        ensureCapacity(wordsInUse + 1);
+        if (pos < wordsInUse) {
+            System.arraycopy(keys, pos, keys, pos + 1, wordsInUse - pos);
+            System.arraycopy(words, pos, words, pos + 1, wordsInUse - pos);
+        }
+        keys[pos] = key;
+        words[pos] = word;
+        ++wordsInUse;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (keys.length < capacity) {
+            int newCapacity = Math.max(capacity,
+                    Math.max(DEFAULT_CAPACITY, keys.length + (keys.length >> 1)));
+            keys = Arrays.copyOf(keys, newCapacity);
+            words = Arrays.copyOf(words, newCapacity);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SparseBitSet that)) {
+            return false;
+        }
+        return cardinality == that.cardinality &&
+                wordsInUse == that.wordsInUse &&
+                Arrays.equals(keys, 0, wordsInUse, that.keys, 0, wordsInUse) &&
+                Arrays.equals(words, 0, wordsInUse, that.words, 0, wordsInUse);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < wordsInUse; ++i) {
+            h = 31 * h + keys[i];
+            h = 31 * h + Long.hashCode(words[i]);
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        PrimitiveIterator.OfInt it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.nextInt());
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append('}').toString();
+    }
+}
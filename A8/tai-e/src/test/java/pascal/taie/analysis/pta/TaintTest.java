@@ -23,7 +23,22 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.Main;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.plugin.taint.TaintWitness;
+import pascal.taie.config.AnalysisConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TaintTest {
 
@@ -70,4 +85,75 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    /**
+     * Checks the flows of each rule pack on the result, as the two packs
+     * share a source, and one of the flows belongs to neither pack.
+     */
+    @Test
+    public void testRulePacks() {
+        Main.main(new String[]{ "-pp", "-cp", "src/test/resources/pta/" + DIR,
+                "-m", "RulePacks" });
+        PointerAnalysisResult result = new CSPTA(new AnalysisConfig(CSPTA.ID,
+                "cs", "ci",
+                "only-app", true,
+                "implicit-entries", false,
+                "taint-config", List.of(
+                        "src/test/resources/pta/taint/packs/pack-a.yml",
+                        "src/test/resources/pta/taint/packs/pack-b.yml")))
+                .analyze();
+        Set<TaintFlow> flows = result.getResult(TaintAnalysiss.class.getName());
+        assertEquals(Set.of("source -> 5/0", "source -> 6/1",
+                        "sourceAndSink -> 9/0", "sourceAndSink -> 10/1"),
+                toString(flows));
+        Map<String, Set<TaintFlow>> pack2Flows =
+                result.getResult(TaintAnalysiss.PACK_FLOWS);
+        assertEquals(List.of("pack-a", "pack-b"), List.copyOf(pack2Flows.keySet()));
+        assertEquals(Set.of("source -> 5/0"), toString(pack2Flows.get("pack-a")));
+        assertEquals(Set.of("source -> 6/1", "sourceAndSink -> 10/1"),
+                toString(pack2Flows.get("pack-b")));
+    }
+
+    /**
+     * Checks that the witness of a flow with two paths of different
+     * lengths is the shorter one, which does not pass through pass().
+     */
+    @Test
+    public void testWitnessIsShortest() {
+        Main.main(new String[]{ "-pp", "-cp", "src/test/resources/pta/" + DIR,
+                "-m", "TwoPaths" });
+        PointerAnalysisResult result = new CSPTA(new AnalysisConfig(CSPTA.ID,
+                "cs", "ci",
+                "only-app", true,
+                "implicit-entries", false,
+                "taint-provenance", true,
+                "taint-config", "src/test/resources/pta/taint/taint-config.yml"))
+                .analyze();
+        List<TaintWitness> witnesses = result.getResult(TaintAnalysiss.WITNESSES);
+        assertEquals(1, witnesses.size());
+        TaintWitness witness = witnesses.get(0);
+        List<TaintWitness.Step> path = witness.path();
+        assertEquals(witness.flow().sourceCall(), path.get(0).call());
+        assertEquals("t", ((CSVar) path.get(path.size() - 1).pointer())
+                .getVar().getName());
+        assertTrue(path.stream().noneMatch(step -> step.pointer() instanceof CSVar v
+                && v.getVar().getMethod().getName().equals("pass")));
+    }
+
+    /**
+     * @return the flows in form of "source method -> sink line/index".
+     */
+    private static Set<String> toString(Set<TaintFlow> flows) {
+        return flows.stream()
+                .map(flow -> flow.sourceCall().getMethodRef().getName() +
+                        " -> " + flow.sinkCall().getLineNumber() +
+                        "/" + flow.index())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testSlicePassThrough() {
+        Tests.testCSPTA(DIR, "PassThrough",
+                "taint-slice:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the methods resolved from the rules with wildcards
+ * and "subtypes: true", and the rule index compiled from them.
+ */
+public class TaintConfigTest {
+
+    private static final String DIR = "src/test/resources/pta/taint";
+
+    private static TaintConfig config;
+
+    private static ClassHierarchy hierarchy;
+
+    @BeforeClass
+    public static void setUp() {
+        Main.main(new String[]{ "-pp", "-cp", DIR, "-m", "Wildcards" });
+        hierarchy = World.get().getClassHierarchy();
+        config = TaintConfig.readConfig(DIR + "/wildcard-config.yml",
+                hierarchy, World.get().getTypeSystem());
+    }
+
+    /**
+     * "read*()" does not match readLine(int) and readAll(String), and
+     * "subtypes: true" adds FileReader.read(), while BufferedReader
+     * does not override read().
+     */
+    @Test
+    public void testSubtypes() {
+        assertEquals(Set.of(
+                        "<Reader: java.lang.String read()>",
+                        "<FileReader: java.lang.String read()>"),
+                toSignatures(config.getSources().stream().map(Source::method)));
+    }
+
+    @Test
+    public void testParameters() {
+        assertEquals(Set.of(
+                        "<Sinks: void sinkA(java.lang.String)>",
+                        "<Sinks: void sinkB(java.lang.String)>"),
+                toSignatures(config.getSinks().stream().map(Sink::method)));
+    }
+
+    /**
+     * "* read*(*)" matches any return and parameter types, and only
+     * the methods declared in FileReader, as the rule does not
+     * set "subtypes: true".
+     */
+    @Test
+    public void testAnyParameters() {
+        assertEquals(Set.of(
+                        "<FileReader: java.lang.String read()>",
+                        "<FileReader: java.lang.String readLine(int)>",
+                        "<FileReader: java.lang.String readAll(java.lang.String)>"),
+                toSignatures(config.getTransfers().stream().map(TaintTransfer::method)));
+    }
+
+    @Test
+    public void testRuleIndex() {
+        TaintRuleIndex index = config.getRuleIndex();
+        TaintRuleIndex.Rules read = index.get(
+                getMethod("<FileReader: java.lang.String read()>"));
+        assertTrue(read.isSource());
+        assertTrue(read.isTransfer());
+        assertFalse(read.isSink());
+        TaintRuleIndex.Rules sinkA = index.get(
+                getMethod("<Sinks: void sinkA(java.lang.String)>"));
+        assertTrue(sinkA.isSink(0));
+        assertFalse(sinkA.isSink(1));
+        assertFalse(sinkA.isSource());
+        assertSame(TaintRuleIndex.Rules.EMPTY, index.get(
+                getMethod("<BufferedReader: java.lang.String readLine(int)>")));
+        assertSame(TaintRuleIndex.Rules.EMPTY, index.get(
+                getMethod("<Sinks: void sinkC(int)>")));
+    }
+
+    private static JMethod getMethod(String signature) {
+        return hierarchy.getMethod(signature);
+    }
+
+    private static Set<String> toSignatures(Stream<JMethod> methods) {
+        return methods.map(JMethod::getSignature).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,12 @@
+class PassThrough {
+
+    public static void main(String[] args) {
+        String s1 = SourceSink.source();
+        String s2 = id(s1);
+        SourceSink.sink(s2); // taint
+    }
+
+    static String id(String s) {
+        return s;
+    }
+}
@@ -0,0 +1,12 @@
+class RulePacks {
+
+    public static void main(String[] args) {
+        String s1 = SourceSink.source();
+        SourceSink.sink(s1); // taint of pack-a
+        SourceSink.sink(s1, s1); // taint of pack-b
+
+        String s2 = SourceSink.sourceAndSink(s1, s1);
+        SourceSink.sink(s2); // taint, but of neither pack
+        SourceSink.sink(s2, s2); // taint of pack-b
+    }
+}
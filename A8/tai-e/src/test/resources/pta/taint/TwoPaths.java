@@ -0,0 +1,17 @@
+class TwoPaths {
+
+    public static void main(String[] args) {
+        String s = SourceSink.source();
+        String t;
+        if (args.length > 0) {
+            t = pass(pass(pass(s))); // long path
+        } else {
+            t = s; // short path
+        }
+        SourceSink.sink(t);
+    }
+
+    static String pass(String s) {
+        return s;
+    }
+}
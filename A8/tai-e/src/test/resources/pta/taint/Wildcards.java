@@ -0,0 +1,56 @@
+class Wildcards {
+
+    public static void main(String[] args) {
+        Reader reader = new BufferedReader();
+        String s = reader.read();
+        String line = reader.readLine(1);
+        Sinks.sinkA(s);
+        Sinks.sinkB(line);
+    }
+}
+
+interface Reader {
+
+    String read();
+
+    String readLine(int n);
+
+    String readAll(String charset);
+}
+
+class FileReader implements Reader {
+
+    public String read() {
+        return new String();
+    }
+
+    public String readLine(int n) {
+        return new String();
+    }
+
+    public String readAll(String charset) {
+        return new String();
+    }
+}
+
+class BufferedReader extends FileReader {
+
+    public String readLine(int n) {
+        return new String();
+    }
+}
+
+class Sinks {
+
+    static void sinkA(String s) {
+    }
+
+    static void sinkB(String s) {
+    }
+
+    static void sinkC(int n) {
+    }
+
+    static void sinkD(String s1, String s2) {
+    }
+}